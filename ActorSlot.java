@@ -0,0 +1,48 @@
+import greenfoot.*;
+
+/**
+ * A data class describing where a PixelActor is stored within the structures
+ * of the PixelWorld it has been added to.
+ * <p>
+ * Each PixelActor carries one ActorSlot, which is only meant to be read and
+ * updated by {@link PixelWorld} and {@link SpatialGrid}. Knowing the index of
+ * an actor in each list allows it to be removed from those lists without
+ * searching through them.
+ * <p>
+ * When its world renders incrementally, the slot also records how the actor
+ * was last drawn onto the canvas, so the world can tell which regions of the
+ * canvas need to be redrawn.
+ * <p>
+ * All index values are -1 while the actor is not stored in a world.
+ *
+ * @version April 2024
+ */
+public class ActorSlot {
+    /**
+     * The index of the actor in its world's list of objects of its class.
+     */
+    public int classIndex = -1;
+    /**
+     * The index of the actor in its world's list of actors in its layer.
+     */
+    public int layerIndex = -1;
+    /**
+     * The index of the cell of its world's spatial index the actor is stored in.
+     */
+    public int spatialCell = -1;
+    /**
+     * The transformed image the actor was last drawn with by incremental
+     * rendering, or null if it has not been drawn since it was added.
+     */
+    public GreenfootImage drawnImage = null;
+    /**
+     * The canvas coordinates of the top left corner of the image the actor was
+     * last drawn with by incremental rendering.
+     */
+    public int drawnX = 0;
+    public int drawnY = 0;
+    /**
+     * The transparency the actor was last drawn with by incremental rendering.
+     */
+    public int drawnTransparency = -1;
+}
@@ -1,5 +1,4 @@
 import greenfoot.*;
-import java.util.List;
 
 /**
  * A massive many teethed horror that consumes everything.
@@ -13,6 +12,8 @@ public class Bloop extends EndingFish
     private static final FishSettings settings;
     private boolean eat;
     private int doomTimer = 1800;
+    // The area in front of a grown Bloop in which it eats every fish and egg
+    private final KillVolume mouth = new KillVolume(this, 18, victim -> false, 1.0);
     //sets this ending fish's settings to basic settings, with specified body image and egg color
     static {
         settings = new FishSettings();
@@ -68,17 +69,8 @@ public class Bloop extends EndingFish
     {
         //If Bloop is fully grown, eats fish along the way
         if (eat) {
-            PixelWorld world = getWorld();
-            List<Fish> eatenFish = world.getObjectsInRange(18, getX()+((getHeading() > 90 && getHeading() < 270)?-45:+45), getY(), Fish.class);
-            List<Egg> eatenEggs = world.getObjectsInRange(18, getX()+((getHeading() > 90 && getHeading() < 270)?-45:+45), getY(), Egg.class);
-            for (Fish f:eatenFish) {
-                if (f != this) {
-                    world.removeObject(f);
-                }
-            }
-            for (Egg e:eatenEggs) {
-                world.removeObject(e);
-            }
+            mouth.setCenter(getX()+((getHeading() > 90 && getHeading() < 270)?-45:+45), getY());
+            ((SimulationWorld) getWorld()).addKillVolume(mouth);
         }
 
         move(settings.getSwimSpeed());
@@ -0,0 +1,65 @@
+import greenfoot.*;
+
+/**
+ * A surface that PixelActors and worlds can render onto.
+ * <p>
+ * Rendering onto a Canvas rather than a GreenfootImage allows the same frame to
+ * be drawn either onto a PixelWorld's canvas image, through an
+ * {@link ImageCanvas}, or into a plain array of pixels, through a
+ * {@link RasterCanvas}, which does not need a display.
+ * <p>
+ * Images drawn onto a Canvas are only read from, never modified, so images
+ * shared between actors may be drawn safely.
+ *
+ * @version April 2024
+ */
+public interface Canvas {
+    /**
+     * Gets the width of this canvas.
+     *
+     * @return the width of this canvas, in canvas pixels
+     */
+    public int getWidth();
+
+    /**
+     * Gets the height of this canvas.
+     *
+     * @return the height of this canvas, in canvas pixels
+     */
+    public int getHeight();
+
+    /**
+     * Draws an image onto this canvas, blending it over the existing pixels
+     * with the given transparency on top of the image's own.
+     *
+     * @param image the image to draw
+     * @param x the x coordinate of the left edge of the image
+     * @param y the y coordinate of the top edge of the image
+     * @param transparency the transparency to draw the image with, from 0 to 255
+     */
+    public void drawImage(GreenfootImage image, int x, int y, int transparency);
+
+    /**
+     * Fills a rectangle of this canvas with a colour, blending it over the
+     * existing pixels.
+     *
+     * @param x the x coordinate of the left edge of the rectangle
+     * @param y the y coordinate of the top edge of the rectangle
+     * @param width the width of the rectangle
+     * @param height the height of the rectangle
+     * @param color the colour to fill the rectangle with
+     */
+    public void fillRect(int x, int y, int width, int height, Color color);
+
+    /**
+     * Draws a one pixel wide line between two points on this canvas,
+     * including both end points, blending it over the existing pixels.
+     *
+     * @param x1 the x coordinate of the start of the line
+     * @param y1 the y coordinate of the start of the line
+     * @param x2 the x coordinate of the end of the line
+     * @param y2 the y coordinate of the end of the line
+     * @param color the colour of the line
+     */
+    public void drawLine(int x1, int y1, int x2, int y2, Color color);
+}
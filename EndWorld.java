@@ -33,8 +33,10 @@ public class EndWorld extends PixelWorld {
 
         triggerFadeIn(0.01);
 
-        background = state.background;
-        getCanvas().setColor(state.color);
+        // Draw the text backdrop onto a copy of the background once, since it never changes
+        background = new GreenfootImage(state.background);
+        background.setColor(state.color);
+        background.fillRect(TEXT_X - Text.BACKGROUND_PADDING_X, TEXT_Y - Text.BACKGROUND_PADDING_Y, TEXT_WIDTH + Text.BACKGROUND_PADDING_X * 2, TEXT_HEIGHT + Text.BACKGROUND_PADDING_Y * 2);
         render();
 
         // Play the appropriate music for this end state
@@ -74,10 +76,7 @@ public class EndWorld extends PixelWorld {
      * Updates the display image of this world.
      */
     private void render() {
-        GreenfootImage canvas = getCanvas();
-        canvas.drawImage(background, 0, 0);
-        canvas.fillRect(TEXT_X - Text.BACKGROUND_PADDING_X, TEXT_Y - Text.BACKGROUND_PADDING_Y, TEXT_WIDTH + Text.BACKGROUND_PADDING_X * 2, TEXT_HEIGHT + Text.BACKGROUND_PADDING_Y * 2);
-        renderPixelActors();
-        updateImage();
+        // Only redraw the parts of the screen that have changed
+        renderIncrementally(background, null);
     }
 }
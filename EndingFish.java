@@ -44,4 +44,15 @@ public abstract class EndingFish extends Fish
         swim();
         reproduce();
     }
+
+    /**
+     * Ending fish never bite hooks.
+     *
+     * @return false, always
+     */
+    @Override
+    public boolean isBiting()
+    {
+        return false;
+    }
 }
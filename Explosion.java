@@ -10,6 +10,8 @@ import greenfoot.*;
 public class Explosion extends GifPixelActor
 {
     private static final SoundEffect explosionSound = new SoundEffect("explosion.wav");
+    // Decoded once and copied by every explosion, since copies share the same frame images
+    private static final GifImage explosionGif = new GifImage("explode.gif");
 
     private int timer = 48;
 
@@ -17,10 +19,20 @@ public class Explosion extends GifPixelActor
      * Create an explosion.
      */
     public Explosion() {
-        super(new GifImage("explode.gif"), Layer.EFFECT);
+        super(createGif(), Layer.EFFECT);
         explosionSound.play();
     }
 
+    /**
+     * Creates a copy of the explosion animation that starts playing from its
+     * first frame at the current act.
+     */
+    private static GifImage createGif() {
+        GifImage gif = new GifImage(explosionGif);
+        gif.resume();
+        return gif;
+    }
+
     @Override
     public void act()
     {
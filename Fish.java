@@ -2,6 +2,7 @@ import greenfoot.*;
 import java.util.Set;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.ArrayList;
 
 /**
  * An undersea actor and target of Fishers.
@@ -28,6 +29,12 @@ public abstract class Fish extends PixelActor {
     /** The distance from which a fish will bite a hook. */
     public static final double HOOK_BITE_DISTANCE = 8.0;
 
+    /** The distance within which fish of the same type school together. */
+    public static final int SCHOOLING_RADIUS = 40;
+
+    /** The distance from a sock within which fish are repelled by it. */
+    public static final int SOCK_REPEL_RADIUS = 32;
+
     // When a fish is being protected from extinction, a circle of this color is drawn on top of it
     public static final Color SHIELD_COLOR = new Color(0, 255, 255, 64);
 
@@ -52,7 +59,11 @@ public abstract class Fish extends PixelActor {
     private double swimSpeedMultiplier;
     // The number of the same type of fish nearby
     private int nearbyKinsCount;
+    // The closest nearby kins this fish follows while schooling
+    private NearestSelection<Fish> schoolmates;
 
+    // The shared image of this fish's current appearance
+    private FishSprite sprite;
     // Offset of body image currently in use to compensate for features
     private int bodyOffsetX;
     private int bodyOffsetY;
@@ -110,6 +121,7 @@ public abstract class Fish extends PixelActor {
         bubbleTimer = new Timer(Util.randInt(240, 480));
         age = 0;
         swimSpeedMultiplier = Util.randDouble(0.8, 1.2);
+        schoolmates = new NearestSelection<Fish>();
     }
 
     /**
@@ -130,7 +142,6 @@ public abstract class Fish extends PixelActor {
             return;
         }
         features.add(feature);
-        updateImage();
     }
 
     /**
@@ -189,6 +200,9 @@ public abstract class Fish extends PixelActor {
      * A fish may be protected when it is an instance of a subclass of Fish that
      * was added with {@link UserSettings#addFishTypeProtection} and it is the
      * only instance of that subclass left swimming in the world.
+     * <p>
+     * This takes constant time, using the counts of unhooked fish kept by
+     * {@link SimulationWorld#countUnhookedFish}.
      *
      * @return true if this fish may not be caught or killed, false otherwise
      */
@@ -197,82 +211,36 @@ public abstract class Fish extends PixelActor {
         if (!world.getUserSettings().isFishTypeProtected(getClass())) {
             return false;
         }
-        for (Fish other : world.getObjects(getClass())) {
-            if (other != this && !other.isHooked()) {
-                return false;
-            }
-        }
-        return true;
+        // Count only the other fish of this type that are still swimming
+        int otherUnhookedCount = world.countUnhookedFish(getClass()) - (isHooked() ? 0 : 1);
+        return otherUnhookedCount <= 0;
     }
 
     /**
      * Sets this Fish's image to a GreenfootImage with this Fish's body and
      * features drawn on it.
      * <p>
-     * The new image will be just large enough to contain this Fish. All
-     * features will be drawn on top of the body at their appropriate locations.
+     * The image is shared by every fish of the same type with the same
+     * features and shield state, see {@link FishSprite}.
      */
     private void updateImage() {
-        GreenfootImage bodyImage = settings.getBodyImage();
-        // If there are no features, the existing body image is sufficient
-        if (features.isEmpty() && !isProtected) {
-            setImage(bodyImage);
-            return;
-        }
-
-        // Create an image of appropriate size to fit this fish with all of its features
-        // Keep track of the extreme locations of any feature relative to the body
-        int left, right, top, bottom;
-        int shieldSize = Math.max(bodyImage.getWidth(), bodyImage.getHeight()) + 4;
-        if (!isProtected) {
-            left = 0;
-            right = bodyImage.getWidth();
-            top = 0;
-            bottom = bodyImage.getHeight();
-        } else {
-            // Make room for shield
-            left = (bodyImage.getWidth() - shieldSize) / 2;
-            right = left + shieldSize;
-            top = (bodyImage.getHeight() - shieldSize) / 2;
-            bottom = top + shieldSize;
-        }
-        for (FishFeature feature : features) {
-            // Get the leftmost and rightmost pixel locations of this feature relative to the body
-            IntPair point = settings.getFeaturePoint(feature);
-            int featLeft = point.x;
-            int featRight = featLeft + feature.getImage().getWidth();
-            if (featLeft < left) {
-                left = featLeft;
-            } else if (featRight > right) {
-                right = featRight;
-            }
-            // Get the topmost and bottommost pixel locations of this feature relative to the body
-            int featTop = point.y;
-            int featBottom = featTop + feature.getImage().getHeight();
-            if (featTop < top) {
-                top = featTop;
-            } else if (featBottom > bottom) {
-                bottom = featBottom;
-            }
-        }
-        GreenfootImage image = new GreenfootImage(right - left, bottom - top);
-
-        // Draw the fish
-        image.drawImage(bodyImage, -left, -top);
-        for (FishFeature feature : features) {
-            IntPair point = settings.getFeaturePoint(feature);
-            image.drawImage(feature.getImage(), point.x - left, point.y - top);
-        }
-        if (isProtected) {
-            // Shield is a circle on top of the fish
-            image.setColor(SHIELD_COLOR);
-            image.fillOval(0, 0, shieldSize, shieldSize);
+        sprite = FishSprite.get(getClass(), settings, features, isProtected);
+        setImage(sprite.getImage());
+        if (sprite.isComposite()) {
+            setCenterOfRotation(sprite.getCenterOfRotationX(), sprite.getCenterOfRotationY());
         }
-        setImage(image);
-        setCenterOfRotation(bodyImage.getWidth() / 2 - left, bodyImage.getHeight() / 2 - top);
         // Store body image offset for other point calculations
-        bodyOffsetX = -left;
-        bodyOffsetY = -top;
+        bodyOffsetX = sprite.getBodyOffsetX();
+        bodyOffsetY = sprite.getBodyOffsetY();
+    }
+
+    /**
+     * Gets the sprite this fish is currently displaying.
+     *
+     * @return the shared FishSprite of this fish's current appearance
+     */
+    public FishSprite getSprite() {
+        return sprite;
     }
 
     /**
@@ -310,22 +278,29 @@ public abstract class Fish extends PixelActor {
     }
 
     /**
-     * Call this in act(). Tests for hooks within the defined range.
+     * Gets the coordinates of the point in the world where this Fish's sock
+     * lies, if it has the {@link FishFeature#ANGLER_SOCK} feature.
+     *
+     * @return a DoublePair describing the position of this Fish's sock in world space
+     */
+    public DoublePair getSockPosition() {
+        // The sock is offset from its feature point, which is relative to the body image
+        IntPair sockOffset = settings.getFeaturePoint(FishFeature.ANGLER_SOCK);
+        return getImageOffsetGlobalPosition(bodyOffsetX + sockOffset.x + 10, bodyOffsetY + sockOffset.y + 9);
+    }
+
+    /**
+     * Tests if this fish currently responds to hooks that come within range of
+     * its catch point. Hooks look for biting fish themselves, see
+     * {@link Hook#lookForFish}.
+     * <p>
+     * Fish that have already bitten a hook or are protected from extinction
+     * ignore hooks. May be overridden by fish types that can never be caught.
+     *
+     * @return true if this fish may bite a hook, false otherwise
      */
-    public final void lookForHook() {
-        // If already bitten a hook or protected from extinction, do nothing
-        if (bittenHook != null || isProtected) {
-            return;
-        }
-        for (Hook hook : getWorld().getObjects(Hook.class)) {
-            if (hook.isOccupied()) continue;
-            DoublePair catchPoint = getCatchPoint();
-            DoublePair fishBitePoint = hook.getBitePoint();
-            double distance = Math.hypot(catchPoint.x - fishBitePoint.x, catchPoint.y - fishBitePoint.y);
-            if (distance < HOOK_BITE_DISTANCE) {
-                respondToHook(hook);
-            }
-        }
+    public boolean isBiting() {
+        return bittenHook == null && !isProtected;
     }
 
     /**
@@ -349,6 +324,7 @@ public abstract class Fish extends PixelActor {
         if (hook.getTier().ordinal() + 2 >= settings.getTier()) {
             bittenHook = hook;
             hook.reelIn(this);
+            ((SimulationWorld) getWorld()).fishHooked(this);
             // Set center of rotation (location of actor position) to catch point, relative to full image
             IntPair catchOffset = settings.getCatchOffset();
             setCenterOfRotation(bodyOffsetX + catchOffset.x, bodyOffsetY + catchOffset.y);
@@ -410,7 +386,6 @@ public abstract class Fish extends PixelActor {
         swim();
         reproduce();
         spawnBubbles();
-        lookForHook();
         age++;
     }
 
@@ -447,37 +422,53 @@ public abstract class Fish extends PixelActor {
     /**
      * Do boid-like behavior, fish bunch up with others of the same type,
      * forming schools of fish.
+     * <p>
+     * Only fish within {@link #SCHOOLING_RADIUS} are found, through the
+     * world's spatial index. If this fish type limits how many schoolmates it
+     * follows, only the closest ones are followed, see
+     * {@link FishSettings#setMaxSchoolingNeighbours}.
      */
     private void doBoidBehavior() {
         if (hasFeature(FishFeature.HAT_PARTY)) return;
         if (hasFeature(FishFeature.ANGLER_SOCK)) return;
 
+        // Count every nearby kin, but only select the closest ones to follow
         nearbyKinsCount = 0;
-        double averageSin = 0;
-        double averageCos = 0;
-        int averageX = 0;
-        int averageY = 0;
-        for (Fish other : getWorld().getObjects(getClass())) {
+        schoolmates.reset(settings.getMaxSchoolingNeighbours());
+        List<Fish> nearbyKins = new ArrayList<Fish>();
+        getWorld().addObjectsInRange(SCHOOLING_RADIUS, getDoubleX(), getDoubleY(), getClass(), nearbyKins);
+        for (Fish other : nearbyKins) {
             if (other == this) continue;
             if (other.hasFeature(FishFeature.HAT_PARTY) || other.hasFeature(FishFeature.ANGLER_SOCK)) continue;
             double distance = getDistanceTo(other);
-            if (distance < 40) {
-                averageSin += Math.sin(Math.toRadians(other.getHeading()));
-                averageCos += Math.cos(Math.toRadians(other.getHeading()));
-                averageX += other.getX();
-                averageY += other.getY();
+            if (distance < SCHOOLING_RADIUS) {
+                schoolmates.offer(other, distance);
                 nearbyKinsCount++;
-                if (distance < (this.getOriginalHeight() + other.getOriginalHeight()) / 2) {
-                    // Separation
-                    setHeading(Util.interpolateAngle(getHeading(), -getAngleTo(other), 0.008));
-                }
             }
         }
-        if (nearbyKinsCount != 0) {
-            averageSin /= nearbyKinsCount;
-            averageCos /= nearbyKinsCount;
-            averageX /= nearbyKinsCount;
-            averageY /= nearbyKinsCount;
+
+        int schoolmateCount = schoolmates.size();
+        double averageSin = 0;
+        double averageCos = 0;
+        int averageX = 0;
+        int averageY = 0;
+        for (int i = 0; i < schoolmateCount; i++) {
+            Fish other = schoolmates.get(i);
+            averageSin += Math.sin(Math.toRadians(other.getHeading()));
+            averageCos += Math.cos(Math.toRadians(other.getHeading()));
+            averageX += other.getX();
+            averageY += other.getY();
+            if (schoolmates.getDistance(i) < (this.getOriginalHeight() + other.getOriginalHeight()) / 2) {
+                // Separation
+                setHeading(Util.interpolateAngle(getHeading(), -getAngleTo(other), 0.008));
+            }
+        }
+        schoolmates.clear();
+        if (schoolmateCount != 0) {
+            averageSin /= schoolmateCount;
+            averageCos /= schoolmateCount;
+            averageX /= schoolmateCount;
+            averageY /= schoolmateCount;
             // Alignment
             setHeading(Util.interpolateAngle(getHeading(), Math.toDegrees(Math.atan2(averageSin, averageCos)), 0.008));
             // Cohesion
@@ -541,13 +532,12 @@ public abstract class Fish extends PixelActor {
      * Try to swim away from any fishes with socks within a certain radius.
      */
     private void repelFromSocks() {
-        for (Fish other : ((SimulationWorld) getWorld()).getFishesByFeature(FishFeature.ANGLER_SOCK)) {
-            // Find the world position of the sock itself, offset from the feature, body image, and fish position
-            IntPair sockOffset = other.getSettings().getFeaturePoint(FishFeature.ANGLER_SOCK);
-            DoublePair sockPos = other.getImageOffsetGlobalPosition(other.getBodyOffsetX() + sockOffset.x + 10, other.getBodyOffsetY() + sockOffset.y + 9);
-            // Repel from this sock only if it is close enough
-            double distance = getDistanceTo(sockPos.x, sockPos.y);
-            if (distance > 32) continue;
+        // Sock positions are computed once per act by the world, so only nearby socks are considered here
+        List<Fish> nearbySocks = new ArrayList<Fish>();
+        ((SimulationWorld) getWorld()).addSocksInRange(getDoubleX(), getDoubleY(), SOCK_REPEL_RADIUS, nearbySocks);
+        for (Fish other : nearbySocks) {
+            // Ignore fish that have been removed from the world since their sock was indexed
+            if (other.getWorld() == null) continue;
 
             // Calculate the target angle required to optimally avoid the sock
             double avoidanceAngle = getAngleTo(other) + 180;
@@ -1,6 +1,9 @@
 import greenfoot.*;
 import java.util.Set;
 import java.util.List;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Queue;
 import java.util.EnumSet;
 import java.util.Collection;
 import java.util.function.Consumer;
@@ -48,6 +51,12 @@ public enum FishFeature {
         EnumSet.range(HAT_BROWN, HAT_PARTY)
     );
 
+    /** The distance from a bomb within which fish and eggs are killed when it explodes. */
+    public static final int BLAST_RADIUS = 32;
+
+    /** The distance from a fish with big eyes within which it notices hooks in front of it and turns away. */
+    public static final int BIG_EYE_RADIUS = 24;
+
     private final GreenfootImage image;
     private final double chance;
     private final int value;
@@ -139,35 +148,55 @@ public enum FishFeature {
     }
 
     /**
-     * Make a given fish blow up.
+     * Make a given fish blow up, along with any bomb-carrying fish caught in
+     * its blast, and so on.
+     * <p>
+     * The whole chain reaction is resolved breadth-first: each bomb kills the
+     * fish and eggs within {@link #BLAST_RADIUS} of it, and any bomb-carrying
+     * fish it kills are queued to explode in turn. Victims are removed from the
+     * world as soon as they are caught, so no fish is killed or explodes twice,
+     * and protection from extinction is checked against the fish still alive.
+     * The explosion effects for the entire chain are added once it has been
+     * resolved.
      *
      * @param fish the fish that will explode
      */
     private static void blowUp(Fish fish) {
         PixelWorld world = fish.getWorld();
         world.removeObject(fish);
-
-        // Find the world position of the bomb itself, offset from the feature, body image, and fish position
-        IntPair bombOffset = fish.getSettings().getFeaturePoint(FishFeature.ANGLER_BOMB);
-        DoublePair bombPos = fish.getImageOffsetGlobalPosition(fish.getBodyOffsetX() + bombOffset.x + 12, fish.getBodyOffsetY() + bombOffset.y + 9);
-        // Get all fishes and eggs around the bomb
-        List<Fish> fishInRange = world.getObjectsInRange(32, (int) bombPos.x, (int) bombPos.y, Fish.class);
-        List<Egg> eggsInRange = world.getObjectsInRange(32, (int) bombPos.x, (int) bombPos.y, Egg.class);
-
-        for (Fish other : fishInRange) {
-            if (other.getWorld() == null || other.isProtected()) {
-                continue;
-            }
-            if (other.hasFeature(ANGLER_BOMB)) {
-                blowUp(other);
-            } else {
+        // Bombs waiting to explode, and where each bomb in the chain exploded
+        Queue<Fish> pendingBombs = new ArrayDeque<Fish>();
+        List<DoublePair> blastPoints = new ArrayList<DoublePair>();
+        pendingBombs.add(fish);
+
+        while (!pendingBombs.isEmpty()) {
+            Fish bomb = pendingBombs.remove();
+            // Find the world position of the bomb itself, offset from the feature, body image, and fish position
+            IntPair bombOffset = bomb.getSettings().getFeaturePoint(FishFeature.ANGLER_BOMB);
+            DoublePair bombPos = bomb.getImageOffsetGlobalPosition(bomb.getBodyOffsetX() + bombOffset.x + 12, bomb.getBodyOffsetY() + bombOffset.y + 9);
+            blastPoints.add(bombPos);
+            // Get all fishes and eggs around the bomb
+            List<Fish> fishInBlast = world.getObjectsInRange(BLAST_RADIUS, (int) bombPos.x, (int) bombPos.y, Fish.class);
+            List<Egg> eggsInBlast = world.getObjectsInRange(BLAST_RADIUS, (int) bombPos.x, (int) bombPos.y, Egg.class);
+
+            for (Fish other : fishInBlast) {
+                // Fish already killed earlier in the chain are no longer in the world
+                if (other.getWorld() == null || other.isProtected()) {
+                    continue;
+                }
                 world.removeObject(other);
+                if (other.hasFeature(ANGLER_BOMB)) {
+                    pendingBombs.add(other);
+                }
+            }
+            for (Egg egg : eggsInBlast) {
+                world.removeObject(egg);
             }
         }
-        for (Egg egg : eggsInRange) {
-            world.removeObject(egg);
+
+        for (DoublePair bombPos : blastPoints) {
+            world.addObject(new Explosion(), (int) bombPos.x, (int) bombPos.y);
         }
-        world.addObject(new Explosion(), (int) bombPos.x, (int) bombPos.y);
     }
 
     /**
@@ -176,13 +205,12 @@ public enum FishFeature {
      * @param fish the fish this method acts upon
      */
     private static void actBigEye(Fish fish) {
-        for (Hook hook : fish.getWorld().getObjects(Hook.class)) {
-            if (hook.isOccupied()) {
-                continue;
-            }
+        List<Hook> nearbyHooks = new ArrayList<Hook>();
+        ((SimulationWorld) fish.getWorld()).addUnoccupiedHooksInRange(fish.getDoubleX(), fish.getDoubleY(), BIG_EYE_RADIUS, nearbyHooks);
+        for (Hook hook : nearbyHooks) {
             double angleToHook = fish.getAngleTo(hook);
             int difference = Math.abs(Math.floorMod((int) (angleToHook - fish.getHeading() + 180), 360) - 180);
-            if (fish.getDistanceTo(hook) < 24 && difference < 90) {
+            if (fish.getDistanceTo(hook) < BIG_EYE_RADIUS && difference < 90) {
                 fish.setHeading(Util.interpolateAngle(fish.getHeading(), -angleToHook, 0.5));
             }
         }
@@ -195,18 +223,7 @@ public enum FishFeature {
      */
     private static void actHatBrown(Fish fish) {
         // Find the closest hook to this fish
-        Hook closestHook = null;
-        double minDist = 0.0;
-        for (Hook hook : fish.getWorld().getObjects(Hook.class)) {
-            if (hook.isOccupied()) {
-                continue;
-            }
-            double dist = fish.getDistanceTo(hook);
-            if (closestHook == null || dist < minDist) {
-                minDist = dist;
-                closestHook = hook;
-            }
-        }
+        Hook closestHook = ((SimulationWorld) fish.getWorld()).getNearestUnoccupiedHook(fish.getDoubleX(), fish.getDoubleY());
         if (closestHook == null) {
             return;
         }
@@ -41,15 +41,15 @@ public class FishRecord extends PixelActor implements Comparable<FishRecord> {
         features = Collections.unmodifiableSet(fish.getFeatureSet());
         value = fish.getValue();
 
-        setImage(fish.getOriginalImage());
+        setImage(fish.getSprite().getImage());
         name = new Text(type.getCanonicalName(), Text.AnchorX.CENTER, Text.AnchorY.TOP);
         tierStars = new Star(fish.getSettings().getTier());
     }
 
     @Override
     public void addedToWorld(World world) {
-        world.addObject(name, getX(), getY() + getOriginalImage().getHeight() / 2 + 5);
-        world.addObject(tierStars, getX(), getY() + getOriginalImage().getHeight() / 2 + 19);
+        world.addObject(name, getX(), getY() + getOriginalHeight() / 2 + 5);
+        world.addObject(tierStars, getX(), getY() + getOriginalHeight() / 2 + 19);
     }
 
     @Override
@@ -58,7 +58,7 @@ public class FishRecord extends PixelActor implements Comparable<FishRecord> {
         name.move(SPEED * speedMultiplier);
         tierStars.move(SPEED * speedMultiplier);
         World w = getWorld();
-        if (getX() - getOriginalImage().getWidth() / 2 > w.getWidth()) {
+        if (getX() - getOriginalWidth() / 2 > w.getWidth()) {
             w.removeObject(name);
             w.removeObject(tierStars);
             w.removeObject(this);
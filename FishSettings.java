@@ -60,6 +60,8 @@ public class FishSettings {
     private Integer averageTurnInterval = null;
     // The maximum degrees the fish can tilt
     private Integer maxTurnDegrees = null;
+    // The maximum number of nearest schoolmates the fish follows while schooling, or 0 to follow all of them (optional)
+    private int maxSchoolingNeighbours = 0;
     // The size of the egg that the fish will spawn
     private Egg.Size eggSize = null;
     // The color of the egg that the fish will spawn
@@ -219,6 +221,22 @@ public class FishSettings {
         maxTurnDegrees = degrees;
     }
 
+    /**
+     * Sets the maximum number of schoolmates followed while schooling. Only
+     * the closest fish of the same type within schooling range are followed.
+     * <p>
+     * This setting is optional; by default, every fish within schooling range
+     * is followed.
+     *
+     * @param count the maximum number of nearest schoolmates to follow, or 0 to follow all of them
+     */
+    public void setMaxSchoolingNeighbours(int count) {
+        if (count < 0) {
+            throw new InvalidSettingException("FishSettings max schooling neighbours must not be negative (got " + count + ")");
+        }
+        maxSchoolingNeighbours = count;
+    }
+
     /**
      * Sets the size of the egg that is spawned by the fish.
      *
@@ -361,6 +379,17 @@ public class FishSettings {
         return catchOffset;
     }
 
+    /**
+     * Gets the distance between the center of the body image and the catch
+     * point, which is the furthest the catch point of a swimming fish of this
+     * type can be from its position.
+     *
+     * @return the distance from the center of the body image to the catch offset, in pixels
+     */
+    public double getCatchReach() {
+        return Math.hypot(catchOffset.x - bodyImage.getWidth() / 2, catchOffset.y - bodyImage.getHeight() / 2);
+    }
+
     /**
      * Gets the swimming speed.
      *
@@ -406,6 +435,15 @@ public class FishSettings {
         return maxTurnDegrees;
     }
 
+    /**
+     * Gets the maximum number of schoolmates followed while schooling.
+     *
+     * @return the maximum number of nearest schoolmates to follow, or 0 if all of them are followed
+     */
+    public int getMaxSchoolingNeighbours() {
+        return maxSchoolingNeighbours;
+    }
+
     /**
      * Gets the size of the egg that is spawned by the fish.
      *
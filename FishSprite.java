@@ -0,0 +1,213 @@
+import greenfoot.*;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Set;
+
+/**
+ * The composite image of a type of fish with a particular set of features,
+ * along with where its body lies within it.
+ * <p>
+ * Fish of the same type with the same features and shield state look exactly
+ * the same, so their sprites are built once and shared through
+ * {@link #get}, rather than every fish drawing its own copy of its body and
+ * features. Since sprites are shared, neither a FishSprite nor its image may
+ * be modified.
+ *
+ * @version April 2024
+ */
+public class FishSprite {
+    // Every sprite built so far for each type of fish, by its features and shield state, see getKey()
+    private static final Map<Class<? extends Fish>, Map<Long, FishSprite>> cache = new HashMap<Class<? extends Fish>, Map<Long, FishSprite>>();
+
+    private final GreenfootImage image;
+    private final int bodyOffsetX;
+    private final int bodyOffsetY;
+    private final int centerOfRotationX;
+    private final int centerOfRotationY;
+    private final boolean composite;
+
+    /**
+     * Creates a new FishSprite whose center of rotation is the center of the
+     * body.
+     *
+     * @param image the image of the fish
+     * @param bodyImage the image of the fish's body
+     * @param bodyOffsetX the number of pixels from the left of the image to the left of the body
+     * @param bodyOffsetY the number of pixels from the top of the image to the top of the body
+     */
+    private FishSprite(GreenfootImage image, GreenfootImage bodyImage, int bodyOffsetX, int bodyOffsetY) {
+        this.image = image;
+        this.bodyOffsetX = bodyOffsetX;
+        this.bodyOffsetY = bodyOffsetY;
+        centerOfRotationX = bodyImage.getWidth() / 2 + bodyOffsetX;
+        centerOfRotationY = bodyImage.getHeight() / 2 + bodyOffsetY;
+        composite = image != bodyImage;
+    }
+
+    /**
+     * Gets the shared sprite of a type of fish with the given features and
+     * shield state, building it the first time it is needed.
+     *
+     * @param type the class of the fish
+     * @param settings the settings of that class of fish
+     * @param features the features of the fish
+     * @param isProtected whether the fish is protected, and has a shield drawn over it
+     * @return the FishSprite of a fish with the given appearance
+     */
+    public static FishSprite get(Class<? extends Fish> type, FishSettings settings, Set<FishFeature> features, boolean isProtected) {
+        Map<Long, FishSprite> sprites = cache.get(type);
+        if (sprites == null) {
+            sprites = new HashMap<Long, FishSprite>();
+            cache.put(type, sprites);
+        }
+        Long key = getKey(features, isProtected);
+        FishSprite sprite = sprites.get(key);
+        if (sprite == null) {
+            sprite = create(settings, features, isProtected);
+            sprites.put(key, sprite);
+        }
+        return sprite;
+    }
+
+    /**
+     * Removes all sprites from the cache.
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Gets the key of a combination of features and shield state: one bit
+     * for each feature by its ordinal, above one bit for the shield.
+     */
+    private static Long getKey(Set<FishFeature> features, boolean isProtected) {
+        long key = isProtected ? 1 : 0;
+        for (FishFeature feature : features) {
+            key |= 1L << (feature.ordinal() + 1);
+        }
+        return key;
+    }
+
+    /**
+     * Creates the sprite of a fish with the given body, features, and shield
+     * state.
+     * <p>
+     * The image will be just large enough to contain the fish. All features
+     * will be drawn on top of the body at their appropriate locations.
+     */
+    private static FishSprite create(FishSettings settings, Set<FishFeature> features, boolean isProtected) {
+        GreenfootImage bodyImage = settings.getBodyImage();
+        // If there are no features, the existing body image is sufficient
+        if (features.isEmpty() && !isProtected) {
+            return new FishSprite(bodyImage, bodyImage, 0, 0);
+        }
+
+        // Create an image of appropriate size to fit this fish with all of its features
+        // Keep track of the extreme locations of any feature relative to the body
+        int left, right, top, bottom;
+        int shieldSize = Math.max(bodyImage.getWidth(), bodyImage.getHeight()) + 4;
+        if (!isProtected) {
+            left = 0;
+            right = bodyImage.getWidth();
+            top = 0;
+            bottom = bodyImage.getHeight();
+        } else {
+            // Make room for shield
+            left = (bodyImage.getWidth() - shieldSize) / 2;
+            right = left + shieldSize;
+            top = (bodyImage.getHeight() - shieldSize) / 2;
+            bottom = top + shieldSize;
+        }
+        for (FishFeature feature : features) {
+            // Get the leftmost and rightmost pixel locations of this feature relative to the body
+            IntPair point = settings.getFeaturePoint(feature);
+            int featLeft = point.x;
+            int featRight = featLeft + feature.getImage().getWidth();
+            if (featLeft < left) {
+                left = featLeft;
+            } else if (featRight > right) {
+                right = featRight;
+            }
+            // Get the topmost and bottommost pixel locations of this feature relative to the body
+            int featTop = point.y;
+            int featBottom = featTop + feature.getImage().getHeight();
+            if (featTop < top) {
+                top = featTop;
+            } else if (featBottom > bottom) {
+                bottom = featBottom;
+            }
+        }
+        GreenfootImage image = new GreenfootImage(right - left, bottom - top);
+
+        // Draw the fish
+        image.drawImage(bodyImage, -left, -top);
+        for (FishFeature feature : features) {
+            IntPair point = settings.getFeaturePoint(feature);
+            image.drawImage(feature.getImage(), point.x - left, point.y - top);
+        }
+        if (isProtected) {
+            // Shield is a circle on top of the fish
+            image.setColor(Fish.SHIELD_COLOR);
+            image.fillOval(0, 0, shieldSize, shieldSize);
+        }
+        return new FishSprite(image, bodyImage, -left, -top);
+    }
+
+    /**
+     * Gets the image of this sprite, which must not be modified.
+     *
+     * @return the shared image of a fish with this sprite's appearance
+     */
+    public GreenfootImage getImage() {
+        return image;
+    }
+
+    /**
+     * Gets the horizontal offset of the body image within this sprite's image.
+     *
+     * @return the number of pixels from the left of the image to the left of the body
+     */
+    public int getBodyOffsetX() {
+        return bodyOffsetX;
+    }
+
+    /**
+     * Gets the vertical offset of the body image within this sprite's image.
+     *
+     * @return the number of pixels from the top of the image to the top of the body
+     */
+    public int getBodyOffsetY() {
+        return bodyOffsetY;
+    }
+
+    /**
+     * Tests whether this sprite's image was drawn from the body and other
+     * images, in which case fish using it rotate around the center of their
+     * body rather than the center of the image.
+     *
+     * @return true if this sprite is a composite image, false if it is just the body image
+     */
+    public boolean isComposite() {
+        return composite;
+    }
+
+    /**
+     * Gets the x coordinate of the point fish using this sprite rotate
+     * around, the center of the body.
+     *
+     * @return the x coordinate of the center of rotation, relative to the image
+     */
+    public int getCenterOfRotationX() {
+        return centerOfRotationX;
+    }
+
+    /**
+     * Gets the y coordinate of the point fish using this sprite rotate
+     * around, the center of the body.
+     *
+     * @return the y coordinate of the center of rotation, relative to the image
+     */
+    public int getCenterOfRotationY() {
+        return centerOfRotationY;
+    }
+}
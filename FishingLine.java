@@ -46,9 +46,16 @@ public class FishingLine extends PixelActor {
      * render an image.
      */
     @Override
-    public void render(GreenfootImage canvas) {
-        canvas.setColor(Color.BLACK);
-        canvas.drawLine((int) startX, (int) startY, (int) endX, (int) endY);
+    public void render(Canvas canvas) {
+        canvas.drawLine((int) startX, (int) startY, (int) endX, (int) endY, Color.BLACK);
+    }
+
+    /**
+     * Fishing lines draw a line rather than an image.
+     */
+    @Override
+    public boolean isRenderedAsImage() {
+        return false;
     }
 
     @Override
@@ -31,7 +31,7 @@ public class FishingRod extends PixelActor {
         this.fisher = fisher;
         setRodTier(RodTier.WOODEN);
 
-        setCenterOfRotation(0, getOriginalImage().getHeight() - 1);
+        setCenterOfRotation(0, getOriginalHeight() - 1);
 
         hooks = new ArrayList<Hook>();
         fishingLines = new ArrayList<FishingLine>();
@@ -131,7 +131,7 @@ public class FishingRod extends PixelActor {
      * @return The global x and y coordinates of the tip as a {@link DoublePair}
      */
     public DoublePair getTipPosition() {
-        return getImageOffsetGlobalPosition(getOriginalImage().getWidth() - 1, 0);
+        return getImageOffsetGlobalPosition(getOriginalWidth() - 1, 0);
     }
 
     /**
@@ -170,7 +170,7 @@ public class FishingRod extends PixelActor {
     public void setRodTier(RodTier rodTier) {
         this.rodTier = rodTier;
         setImage(rodTier.imagePrefix + fisher.getSide() + ".png");
-        setCenterOfRotation(0, getOriginalImage().getHeight() - 1);
+        setCenterOfRotation(0, getOriginalHeight() - 1);
     }
 
     /**
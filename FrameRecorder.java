@@ -0,0 +1,309 @@
+import greenfoot.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+
+/**
+ * Records the frames of a PixelWorld to files without slowing down the
+ * simulation.
+ * <p>
+ * Every call to {@link #capture} copies the canvas into one of a fixed number
+ * of pooled frame buffers and hands it to a background thread, which encodes
+ * the frames either as a sequence of PNG files or as a single animated GIF.
+ * Capturing never waits for the encoder: if every buffer is still waiting to
+ * be encoded, the frame is dropped, and the previous frame of a GIF is shown
+ * for longer to cover it.
+ * <p>
+ * A FrameRecorder must be closed once recording is done, so that the
+ * remaining frames are encoded and the files are finished.
+ *
+ * @version April 2024
+ */
+public class FrameRecorder {
+    /** The default number of frames that may wait to be encoded at once. */
+    public static final int DEFAULT_BUFFER_COUNT = 8;
+
+    /**
+     * The types of files a FrameRecorder can write.
+     * <ul>
+     * <li>{@code PNG_SEQUENCE}: One PNG file per frame in a directory, named after the act the frame was captured on.
+     * <li>{@code ANIMATED_GIF}: A single animated GIF file, with each frame shown for as long as it lasted in acts.
+     * </ul>
+     */
+    public enum Format {
+        PNG_SEQUENCE, ANIMATED_GIF;
+    }
+
+    /**
+     * A pooled buffer holding one captured frame.
+     */
+    private static class Frame {
+        private final int[] pixels;
+        private int act;
+
+        private Frame(int size) {
+            pixels = new int[size];
+        }
+    }
+
+    private final Path path;
+    private final Format format;
+    private final int width;
+    private final int height;
+    // Buffers ready to be captured into, and captured frames waiting to be encoded
+    private final BlockingQueue<Frame> freeFrames;
+    private final BlockingQueue<Frame> pendingFrames;
+    private final Thread encoderThread;
+    private volatile boolean closed;
+    private volatile IOException error;
+    private int droppedFrames;
+
+    // Only used by the encoder thread
+    private FileChannel gifChannel;
+    private GifEncoder gifEncoder;
+    // The last frame of a GIF, held until the next frame shows how long it lasted
+    private Frame heldFrame;
+    // The total time the frames of a GIF have been shown for, in milliseconds and in hundredths of a second
+    private long gifMillis;
+    private long gifCentiseconds;
+    private BufferedImage pngImage;
+
+    /**
+     * Creates a new FrameRecorder and starts its encoder thread, using the
+     * default number of frame buffers.
+     *
+     * @param path the directory to write PNG files to, or the GIF file to write
+     * @param format the type of files to write
+     * @param width the width of the canvas that will be captured
+     * @param height the height of the canvas that will be captured
+     */
+    public FrameRecorder(Path path, Format format, int width, int height) {
+        this(path, format, width, height, DEFAULT_BUFFER_COUNT);
+    }
+
+    /**
+     * Creates a new FrameRecorder and starts its encoder thread.
+     *
+     * @param path the directory to write PNG files to, or the GIF file to write
+     * @param format the type of files to write
+     * @param width the width of the canvas that will be captured
+     * @param height the height of the canvas that will be captured
+     * @param bufferCount the number of frames that may wait to be encoded at once, at least 2
+     */
+    public FrameRecorder(Path path, Format format, int width, int height, int bufferCount) {
+        if (bufferCount < 2) {
+            throw new IllegalArgumentException("FrameRecorder needs at least 2 frame buffers (got " + bufferCount + ")");
+        }
+        this.path = path;
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        freeFrames = new ArrayBlockingQueue<Frame>(bufferCount);
+        pendingFrames = new ArrayBlockingQueue<Frame>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+            freeFrames.add(new Frame(width * height));
+        }
+        closed = false;
+        droppedFrames = 0;
+        encoderThread = new Thread(this::encodeFrames, "FrameRecorder");
+        encoderThread.setDaemon(true);
+        encoderThread.start();
+    }
+
+    /**
+     * Copies the given canvas into a free frame buffer to be encoded, or
+     * drops the frame if there is none. This never blocks.
+     *
+     * @param canvas the canvas to record, with the dimensions given to this recorder
+     */
+    public void capture(GreenfootImage canvas) {
+        if (closed || error != null) {
+            return;
+        }
+        Frame frame = freeFrames.poll();
+        if (frame == null) {
+            droppedFrames++;
+            return;
+        }
+        copyPixels(canvas.getAwtImage(), frame.pixels);
+        frame.act = Timer.getCurrentAct();
+        pendingFrames.add(frame);
+    }
+
+    /**
+     * Stops capturing frames. The encoder thread finishes encoding every
+     * captured frame and closes its files in the background.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Tests whether this recorder has been closed, so that it no longer
+     * captures frames.
+     *
+     * @return true if {@link #close} has been called, false otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Tests whether the encoder thread has finished writing every captured
+     * frame and closed its files, after this recorder has been closed or has
+     * stopped because of an error.
+     *
+     * @return true if the encoder thread has finished, false otherwise
+     */
+    public boolean isFinished() {
+        return !encoderThread.isAlive();
+    }
+
+    /**
+     * Gets the path this recorder writes to.
+     *
+     * @return the directory PNG files are written to, or the GIF file being written
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the number of frames that were dropped because every frame buffer
+     * was waiting to be encoded.
+     *
+     * @return the number of frames dropped so far
+     */
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Gets the error that stopped this recorder, if any. Once an error
+     * occurs, no more frames are captured.
+     *
+     * @return the exception thrown while writing files, or null if there has been none
+     */
+    public IOException getError() {
+        return error;
+    }
+
+    /**
+     * Copies every pixel of an image into an array of ARGB values, straight
+     * from its raster if possible.
+     */
+    private void copyPixels(BufferedImage image, int[] pixels) {
+        WritableRaster raster = image.getRaster();
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB
+            && raster.getDataBuffer() instanceof DataBufferInt
+            && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+            int[] source = ((DataBufferInt) raster.getDataBuffer()).getData();
+            int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+            for (int row = 0; row < height; row++) {
+                System.arraycopy(source, row * stride, pixels, row * width, width);
+            }
+        } else {
+            image.getRGB(0, 0, width, height, pixels, 0, width);
+        }
+    }
+
+    /**
+     * Encodes captured frames until this recorder is closed and every frame
+     * has been encoded, then finishes the files. Runs on the encoder thread.
+     */
+    private void encodeFrames() {
+        try {
+            if (format == Format.PNG_SEQUENCE) {
+                Files.createDirectories(path);
+                pngImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            } else {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                gifChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                gifEncoder = new GifEncoder(gifChannel, width, height);
+            }
+            while (!closed || !pendingFrames.isEmpty()) {
+                Frame frame = pendingFrames.poll(100, TimeUnit.MILLISECONDS);
+                if (frame == null) {
+                    continue;
+                }
+                if (format == Format.PNG_SEQUENCE) {
+                    writePng(frame);
+                    freeFrames.add(frame);
+                } else {
+                    writeGifFrame(frame);
+                }
+            }
+            if (gifEncoder != null) {
+                if (heldFrame != null) {
+                    // The last frame lasts for one act
+                    writeHeldGifFrame(heldFrame.act + 1);
+                }
+                gifEncoder.finish();
+            }
+        } catch (IOException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (gifChannel != null) {
+                try {
+                    gifChannel.close();
+                } catch (IOException e) {
+                    if (error == null) {
+                        error = e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a frame to its own PNG file.
+     */
+    private void writePng(Frame frame) throws IOException {
+        pngImage.setRGB(0, 0, width, height, frame.pixels, 0, width);
+        Path file = path.resolve(String.format("frame%08d.png", frame.act));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = Channels.newOutputStream(channel)) {
+            ImageIO.write(pngImage, "png", out);
+        }
+    }
+
+    /**
+     * Writes the held frame of the GIF now that the act of the next frame is
+     * known, then holds onto the given frame in its place.
+     */
+    private void writeGifFrame(Frame frame) throws IOException {
+        if (heldFrame != null) {
+            writeHeldGifFrame(frame.act);
+            freeFrames.add(heldFrame);
+        }
+        heldFrame = frame;
+    }
+
+    /**
+     * Writes the held frame of the GIF, shown until the given act. Delays are
+     * rounded so that the total length of the GIF stays in step with the
+     * acts recorded, including any dropped frames.
+     */
+    private void writeHeldGifFrame(int endAct) throws IOException {
+        gifMillis += (long) Math.max(endAct - heldFrame.act, 1) * GifImage.MILLIS_PER_ACT;
+        long endCentiseconds = (gifMillis + 5) / 10;
+        gifEncoder.writeFrame(heldFrame.pixels, (int) (endCentiseconds - gifCentiseconds));
+        gifCentiseconds = endCentiseconds;
+    }
+}
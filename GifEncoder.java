@@ -0,0 +1,361 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Writes frames of ARGB pixels to a channel as an animated GIF file.
+ * <p>
+ * This is the counterpart of the decoder in {@link GifImage}: each frame is
+ * written with its own colour table and compressed with the same variable
+ * length LZW codes, starting one bit wider than the minimum code size and
+ * growing up to 12 bits, with a clear code whenever the table of 4096 codes
+ * fills up.
+ * <p>
+ * Frames are assumed to be opaque, so the alpha of every pixel is ignored.
+ * Frames with up to 256 distinct colours are stored exactly; frames with more
+ * are reduced to a fixed 6 by 6 by 6 colour cube.
+ *
+ * @version April 2024
+ */
+public class GifEncoder {
+    // The number of LZW codes available, the same as the decoder's MaxStackSize
+    private static final int MAX_CODES = 4096;
+    // The widest LZW code, in bits
+    private static final int MAX_CODE_SIZE = 12;
+    // The size of the open-addressed tables used to look up colours and LZW strings, prime to spread keys out
+    private static final int COLOR_TABLE_SIZE = 1021;
+    private static final int STRING_TABLE_SIZE = 5003;
+    // The number of levels of each colour channel in the colour cube used when a frame has too many colours
+    private static final int CUBE_LEVELS = 6;
+
+    private final WritableByteChannel channel;
+    private final int width;
+    private final int height;
+    private final ByteBuffer buffer;
+
+    // The palette index of each pixel of the frame being written
+    private final byte[] indices;
+    // The colours of the frame being written, and the table mapping colours to their palette indices
+    private final int[] palette;
+    private int paletteSize;
+    private final int[] colorKeys;
+    private final int[] colorIndices;
+
+    // The table mapping a string's prefix code and final index, packed into one key, to the string's code
+    private final int[] stringKeys;
+    private final int[] stringCodes;
+    // The current data sub-block and the bits not yet added to it
+    private final byte[] block;
+    private int blockSize;
+    private int bitBuffer;
+    private int bitCount;
+
+    // The state of the LZW encoder for the frame being written
+    private int minCodeSize;
+    private int codeSize;
+    private int maxCode;
+    private int nextCode;
+    private boolean clearing;
+
+    /**
+     * Creates a new GifEncoder and writes the header of an endlessly looping
+     * animated GIF to the given channel.
+     *
+     * @param channel the channel to write the GIF file to, which is not closed by this encoder
+     * @param width the width of every frame, in pixels
+     * @param height the height of every frame, in pixels
+     * @throws IOException if the header cannot be written
+     */
+    public GifEncoder(WritableByteChannel channel, int width, int height) throws IOException {
+        this.channel = channel;
+        this.width = width;
+        this.height = height;
+        buffer = ByteBuffer.allocate(64 * 1024);
+        indices = new byte[width * height];
+        palette = new int[256];
+        colorKeys = new int[COLOR_TABLE_SIZE];
+        colorIndices = new int[COLOR_TABLE_SIZE];
+        stringKeys = new int[STRING_TABLE_SIZE];
+        stringCodes = new int[STRING_TABLE_SIZE];
+        block = new byte[255];
+
+        // Header and logical screen descriptor, without a global colour table
+        writeBytes("GIF89a");
+        writeShort(width);
+        writeShort(height);
+        writeByte(0);
+        writeByte(0);
+        writeByte(0);
+        // Netscape application extension, looping forever
+        writeByte(0x21);
+        writeByte(0xFF);
+        writeByte(11);
+        writeBytes("NETSCAPE2.0");
+        writeByte(3);
+        writeByte(1);
+        writeShort(0);
+        writeByte(0);
+    }
+
+    /**
+     * Writes one frame of the animation.
+     *
+     * @param pixels the ARGB pixels of the frame, row by row, with the width and height of this encoder
+     * @param delay how long the frame is shown for, in hundredths of a second
+     * @throws IOException if the frame cannot be written
+     */
+    public void writeFrame(int[] pixels, int delay) throws IOException {
+        buildPalette(pixels);
+        int tableBits = 1;
+        while ((1 << tableBits) < paletteSize) {
+            tableBits++;
+        }
+
+        // Graphic control extension, leaving each frame in place for the next to be drawn over
+        writeByte(0x21);
+        writeByte(0xF9);
+        writeByte(4);
+        writeByte(1 << 2);
+        writeShort(Math.min(Math.max(delay, 0), 0xFFFF));
+        writeByte(0);
+        writeByte(0);
+        // Image descriptor, covering the whole screen with a local colour table
+        writeByte(0x2C);
+        writeShort(0);
+        writeShort(0);
+        writeShort(width);
+        writeShort(height);
+        writeByte(0x80 | (tableBits - 1));
+        for (int i = 0; i < (1 << tableBits); i++) {
+            int color = i < paletteSize ? palette[i] : 0;
+            writeByte(color >> 16);
+            writeByte(color >> 8);
+            writeByte(color);
+        }
+        compressIndices(Math.max(tableBits, 2));
+    }
+
+    /**
+     * Writes the end of the GIF file and flushes everything written to the
+     * channel.
+     *
+     * @throws IOException if the file cannot be finished
+     */
+    public void finish() throws IOException {
+        writeByte(0x3B);
+        flushBuffer();
+    }
+
+    /**
+     * Fills the palette with the colours of a frame and the palette index of
+     * every pixel, falling back to the colour cube if there are too many.
+     */
+    private void buildPalette(int[] pixels) {
+        Arrays.fill(colorKeys, -1);
+        paletteSize = 0;
+        for (int i = 0; i < indices.length; i++) {
+            int color = pixels[i] & 0xFFFFFF;
+            int slot = (color * 31 & 0x7FFFFFFF) % COLOR_TABLE_SIZE;
+            while (colorKeys[slot] != -1 && colorKeys[slot] != color) {
+                slot = (slot + 1) % COLOR_TABLE_SIZE;
+            }
+            if (colorKeys[slot] == -1) {
+                if (paletteSize == palette.length) {
+                    buildCubePalette(pixels);
+                    return;
+                }
+                colorKeys[slot] = color;
+                colorIndices[slot] = paletteSize;
+                palette[paletteSize++] = color;
+            }
+            indices[i] = (byte) colorIndices[slot];
+        }
+        // GIF colour tables hold at least two colours
+        if (paletteSize < 2) {
+            palette[paletteSize++] = 0;
+        }
+    }
+
+    /**
+     * Fills the palette with the colour cube and maps every pixel of a frame
+     * to its nearest colour in the cube.
+     */
+    private void buildCubePalette(int[] pixels) {
+        paletteSize = 0;
+        for (int red = 0; red < CUBE_LEVELS; red++) {
+            for (int green = 0; green < CUBE_LEVELS; green++) {
+                for (int blue = 0; blue < CUBE_LEVELS; blue++) {
+                    palette[paletteSize++] = cubeValue(red) << 16 | cubeValue(green) << 8 | cubeValue(blue);
+                }
+            }
+        }
+        for (int i = 0; i < indices.length; i++) {
+            int pixel = pixels[i];
+            int red = cubeLevel((pixel >> 16) & 0xFF);
+            int green = cubeLevel((pixel >> 8) & 0xFF);
+            int blue = cubeLevel(pixel & 0xFF);
+            indices[i] = (byte) ((red * CUBE_LEVELS + green) * CUBE_LEVELS + blue);
+        }
+    }
+
+    /**
+     * Gets the nearest level of the colour cube to a colour channel value.
+     */
+    private static int cubeLevel(int value) {
+        return (value * (CUBE_LEVELS - 1) + 127) / 255;
+    }
+
+    /**
+     * Gets the colour channel value of a level of the colour cube.
+     */
+    private static int cubeValue(int level) {
+        return level * 255 / (CUBE_LEVELS - 1);
+    }
+
+    /**
+     * Compresses the palette indices of the current frame into LZW coded
+     * data sub-blocks.
+     *
+     * @param minCodeSize the number of bits needed to store any palette index, at least 2
+     */
+    private void compressIndices(int minCodeSize) throws IOException {
+        this.minCodeSize = minCodeSize;
+        int clearCode = 1 << minCodeSize;
+        writeByte(minCodeSize);
+        blockSize = 0;
+        bitBuffer = 0;
+        bitCount = 0;
+
+        resetCodes();
+        writeCode(clearCode);
+        int prefix = indices[0] & 0xFF;
+        for (int i = 1; i < indices.length; i++) {
+            int suffix = indices[i] & 0xFF;
+            int key = prefix << 8 | suffix;
+            int slot = (key * 31 & 0x7FFFFFFF) % STRING_TABLE_SIZE;
+            while (stringKeys[slot] != -1 && stringKeys[slot] != key) {
+                slot = (slot + 1) % STRING_TABLE_SIZE;
+            }
+            if (stringKeys[slot] == key) {
+                // The current string plus this index is already known, so keep extending it
+                prefix = stringCodes[slot];
+                continue;
+            }
+            writeCode(prefix);
+            if (nextCode < MAX_CODES) {
+                stringKeys[slot] = key;
+                stringCodes[slot] = nextCode++;
+            } else {
+                // The table is full, so start over from single indices
+                clearing = true;
+                writeCode(clearCode);
+                resetCodes();
+            }
+            prefix = suffix;
+        }
+        writeCode(prefix);
+        writeCode(clearCode + 1);
+
+        if (bitCount > 0) {
+            addToBlock(bitBuffer);
+        }
+        flushBlock();
+        // Block terminator
+        writeByte(0);
+    }
+
+    /**
+     * Empties the string table, leaving only the codes of single indices.
+     */
+    private void resetCodes() {
+        Arrays.fill(stringKeys, -1);
+        nextCode = (1 << minCodeSize) + 2;
+        codeSize = minCodeSize + 1;
+        maxCode = (1 << codeSize) - 1;
+    }
+
+    /**
+     * Adds one code to the current data sub-block, then widens the codes
+     * that follow it once the next string's code would not fit, in step with
+     * the decoder.
+     */
+    private void writeCode(int code) throws IOException {
+        bitBuffer |= code << bitCount;
+        bitCount += codeSize;
+        while (bitCount >= 8) {
+            addToBlock(bitBuffer);
+            bitBuffer >>>= 8;
+            bitCount -= 8;
+        }
+        if (clearing) {
+            clearing = false;
+        } else if (nextCode > maxCode && codeSize < MAX_CODE_SIZE) {
+            codeSize++;
+            maxCode = (1 << codeSize) - 1;
+        }
+    }
+
+    /**
+     * Adds one byte to the current data sub-block, writing the block once it
+     * is full.
+     */
+    private void addToBlock(int value) throws IOException {
+        block[blockSize++] = (byte) value;
+        if (blockSize == block.length) {
+            flushBlock();
+        }
+    }
+
+    /**
+     * Writes the current data sub-block, if it holds anything.
+     */
+    private void flushBlock() throws IOException {
+        if (blockSize == 0) {
+            return;
+        }
+        writeByte(blockSize);
+        for (int i = 0; i < blockSize; i++) {
+            writeByte(block[i]);
+        }
+        blockSize = 0;
+    }
+
+    /**
+     * Writes the low byte of a value.
+     */
+    private void writeByte(int value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flushBuffer();
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes the low two bytes of a value, least significant first.
+     */
+    private void writeShort(int value) throws IOException {
+        writeByte(value);
+        writeByte(value >> 8);
+    }
+
+    /**
+     * Writes the characters of a string as single bytes.
+     */
+    private void writeBytes(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            writeByte(text.charAt(i));
+        }
+    }
+
+    /**
+     * Writes everything in the buffer to the channel.
+     */
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
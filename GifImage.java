@@ -28,7 +28,7 @@ public class GifImage
      * This value is the delay returned by {@code greenfoot.core.Simulation.calculateDelay(50)}
      * (nanoseconds) converted into milliseconds.
      */
-    private static final int MILLIS_PER_ACT = 16243039 / 1000000;
+    public static final int MILLIS_PER_ACT = 16243039 / 1000000;
 
     /** The images used in the animation. */
     private GreenfootImage[] images;
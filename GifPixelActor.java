@@ -11,6 +11,8 @@ import greenfoot.*;
  */
 public class GifPixelActor extends PixelActor {
     private final GifImage gif;
+    // The frame of the GifImage this actor is currently showing
+    private GreenfootImage currentFrame;
 
     /**
      * Creates a GifPixelActor on the defined rendering layer using the given
@@ -22,6 +24,7 @@ public class GifPixelActor extends PixelActor {
     public GifPixelActor(GifImage gif, Layer layer) {
         super(gif.getCurrentImage(), layer);
         this.gif = gif;
+        currentFrame = gif.getCurrentImage();
     }
 
     /**
@@ -31,8 +34,22 @@ public class GifPixelActor extends PixelActor {
      */
     public void updateImage() {
         GreenfootImage frame = gif.getCurrentImage();
-        if (getOriginalImage() != frame) {
+        // The original image is a copy of the frame, so compare against the frame itself
+        if (currentFrame != frame) {
+            currentFrame = frame;
             setImage(frame);
         }
     }
+
+    /**
+     * Gets the frame of the GifImage this actor is currently showing, as of
+     * the last call to {@link #updateImage}.
+     * <p>
+     * The frame is shared with the GifImage and must not be modified.
+     *
+     * @return the current frame of this actor's animation
+     */
+    public GreenfootImage getCurrentFrame() {
+        return currentFrame;
+    }
 }
@@ -1,4 +1,6 @@
 import greenfoot.*;
+import java.util.List;
+import java.util.ArrayList;
 
 /**
  * The hook at the end of the fishing line, latches onto fish.
@@ -15,6 +17,8 @@ public class Hook extends PixelActor {
     private Fish attachedFish;
     private double horizontalSpeed;
     private double localSpeedMultiplier;
+    // The bite point of this hook when it last looked for fish, or null if it has not yet
+    private DoublePair lastBitePoint;
 
     /**
      * Initialize the hook given fishing rod and fishing line.
@@ -37,6 +41,7 @@ public class Hook extends PixelActor {
 
         reelingIn = false;
         attachedFish = null;
+        lastBitePoint = null;
     }
 
     @Override
@@ -66,6 +71,42 @@ public class Hook extends PixelActor {
         if (getY() > fishingRod.getMaxDepth()) {
             reelIn();
         }
+
+        lookForFish();
+    }
+
+    /**
+     * Call this in act(). Lets fish whose catch points are within
+     * {@link Fish#HOOK_BITE_DISTANCE} of the path this hook's bite point
+     * travelled since it last looked for fish respond to it, until one of them
+     * bites.
+     * <p>Testing the whole path rather than only the current bite point means
+     * a fast hook cannot pass by a fish between acts without it noticing.</p>
+     * <p>Only fish positioned close enough for their catch point to be in
+     * range are considered, see {@link SimulationWorld#getMaxCatchReach}.</p>
+     */
+    public void lookForFish() {
+        if (isOccupied()) return;
+        SimulationWorld world = (SimulationWorld) getWorld();
+        DoublePair bitePoint = getBitePoint();
+        DoublePair startPoint = lastBitePoint != null ? lastBitePoint : bitePoint;
+        lastBitePoint = bitePoint;
+        // Search around the middle of the path, far enough to reach either end of it
+        double midX = (startPoint.x + bitePoint.x) / 2;
+        double midY = (startPoint.y + bitePoint.y) / 2;
+        double pathRadius = Math.hypot(bitePoint.x - startPoint.x, bitePoint.y - startPoint.y) / 2;
+        double searchRadius = pathRadius + Fish.HOOK_BITE_DISTANCE + world.getMaxCatchReach();
+        List<Fish> nearbyFish = new ArrayList<Fish>();
+        world.addObjectsInRange(searchRadius, midX, midY, Fish.class, nearbyFish);
+        for (Fish fish : nearbyFish) {
+            if (!fish.isBiting()) continue;
+            DoublePair catchPoint = fish.getCatchPoint();
+            double distance = Util.distanceToSegment(catchPoint.x, catchPoint.y, startPoint.x, startPoint.y, bitePoint.x, bitePoint.y);
+            if (distance < Fish.HOOK_BITE_DISTANCE) {
+                fish.respondToHook(this);
+                if (isOccupied()) break;
+            }
+        }
     }
 
     /**
@@ -0,0 +1,67 @@
+import greenfoot.*;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+
+/**
+ * A Canvas that draws onto a GreenfootImage, such as the canvas image of a
+ * PixelWorld.
+ *
+ * @version April 2024
+ */
+public class ImageCanvas implements Canvas {
+    private final GreenfootImage image;
+
+    /**
+     * Creates a new ImageCanvas drawing onto the given image.
+     *
+     * @param image the image to draw onto
+     */
+    public ImageCanvas(GreenfootImage image) {
+        this.image = image;
+    }
+
+    /**
+     * Gets the image this canvas draws onto.
+     *
+     * @return the GreenfootImage this canvas draws onto
+     */
+    public GreenfootImage getImage() {
+        return image;
+    }
+
+    @Override
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    @Override
+    public void drawImage(GreenfootImage source, int x, int y, int transparency) {
+        if (transparency == 255) {
+            image.drawImage(source, x, y);
+            return;
+        }
+        // Apply the transparency through the composite, so the source image is never modified
+        Graphics2D graphics = image.getAwtImage().createGraphics();
+        float alpha = transparency / 255.0f * source.getTransparency() / 255.0f;
+        graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        graphics.drawImage(source.getAwtImage(), x, y, null);
+        graphics.dispose();
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height, Color color) {
+        image.setColor(color);
+        image.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2, Color color) {
+        image.setColor(color);
+        image.drawLine(x1, y1, x2, y2);
+    }
+}
@@ -0,0 +1,101 @@
+import greenfoot.*;
+import java.util.function.Predicate;
+
+/**
+ * A circular area in which a predator kills fish and eggs.
+ * <p>
+ * Predators own a KillVolume, move it to where they are eating every act, and
+ * register it with {@link SimulationWorld#addKillVolume}. The world then
+ * resolves all registered volumes together in a single pass at the end of the
+ * same act, once every actor has acted, instead of every predator searching
+ * for its own victims.
+ * <p>
+ * Within a volume, each fish or egg that is not immune is killed with the
+ * volume's kill chance. A predator is never killed by its own volume.
+ *
+ * @version April 2024
+ */
+public class KillVolume {
+    private final PixelActor predator;
+    private final double radius;
+    private final Predicate<Actor> immunity;
+    private final double killChance;
+    private double x;
+    private double y;
+
+    /**
+     * Creates a new KillVolume belonging to the given predator.
+     *
+     * @param predator the actor doing the killing, which is never killed by this volume
+     * @param radius the radius of this volume, in canvas pixels
+     * @param immunity a predicate testing whether a fish or egg is immune to this volume
+     * @param killChance the probability of killing each victim each act, from 0.0 to 1.0
+     */
+    public KillVolume(PixelActor predator, double radius, Predicate<Actor> immunity, double killChance) {
+        this.predator = predator;
+        this.radius = radius;
+        this.immunity = immunity;
+        this.killChance = killChance;
+    }
+
+    /**
+     * Moves the center of this volume to the given point.
+     *
+     * @param x the x coordinate of the new center
+     * @param y the y coordinate of the new center
+     */
+    public void setCenter(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Gets the actor that owns this volume.
+     *
+     * @return the predator of this volume
+     */
+    public PixelActor getPredator() {
+        return predator;
+    }
+
+    /**
+     * Gets the x coordinate of the center of this volume.
+     *
+     * @return the x coordinate of this volume's center
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y coordinate of the center of this volume.
+     *
+     * @return the y coordinate of this volume's center
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Gets the radius of this volume.
+     *
+     * @return the radius of this volume, in canvas pixels
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * Decides whether a fish or egg within this volume is killed by it this
+     * act, rolling against the kill chance if the victim is not immune.
+     *
+     * @param victim the fish or egg within this volume
+     * @return true if the victim should be killed, false otherwise
+     */
+    public boolean kills(Actor victim) {
+        if (victim == predator || immunity.test(victim)) {
+            return false;
+        }
+        return killChance >= 1.0 || Util.randDouble(0, 1) < killChance;
+    }
+}
@@ -1,5 +1,4 @@
 import greenfoot.*;
-import java.util.List;
 
 /**
  * Ink splotch made by the Kraken.
@@ -11,6 +10,8 @@ public class KrakenInk extends PixelActor
 {
     private double speed;
     private double ySpeed;
+    // The area of this ink in which it has a chance to kill any creature it engulfs
+    private final KillVolume engulfed = new KillVolume(this, 5, KrakenInk::isImmuneToInk, 1.0 / 11);
 
     /**
      * Create a new KrakenInk.
@@ -39,19 +40,18 @@ public class KrakenInk extends PixelActor
         }
 
         //Ink kills any creature it engulfs
-        PixelWorld world = getWorld();
-        List<Fish> fish = getObjectsInRange(5, Fish.class);
-        List<Egg> egg = getObjectsInRange(5, Egg.class);
-        for (Fish f:fish) {
-            boolean immune = f instanceof Kraken || f instanceof Leviathan || (f instanceof Bloop && ((Bloop) f).isGrown());
-            if (!immune && Util.randInt(0, 10) == 0) {
-                world.removeObject(f);
-            }
-        }
-        for (Egg e:egg) {
-            if (Util.randInt(0, 10) == 0) {
-                world.removeObject(e);
-            }
-        }
+        engulfed.setCenter(getDoubleX(), getDoubleY());
+        ((SimulationWorld) getWorld()).addKillVolume(engulfed);
+    }
+
+    /**
+     * Tests if a fish or egg is safe from being killed by ink. Krakens,
+     * Leviathans, and grown Bloops are immune.
+     *
+     * @param victim the fish or egg to test
+     * @return true if the victim is immune, false otherwise
+     */
+    private static boolean isImmuneToInk(Actor victim) {
+        return victim instanceof Kraken || victim instanceof Leviathan || (victim instanceof Bloop && ((Bloop) victim).isGrown());
     }
 }
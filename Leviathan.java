@@ -1,5 +1,4 @@
 import greenfoot.*;
-import java.util.List;
 
 /**
  * Invasive apex preadators that reproduce like bunnies and wrecks the whole eco-system.
@@ -14,6 +13,8 @@ public class Leviathan extends EndingFish
     private int doomTimer = 1000;
     private double speed;
     private int type;
+    // The area in front of this Leviathan in which it eats eggs, and later fish
+    private final KillVolume bite;
     //sets this ending fish's settings to basic settings, with specified body image and egg color
     static {
         settings = new FishSettings();
@@ -29,6 +30,14 @@ public class Leviathan extends EndingFish
         type = Util.randInt(1, 3);
         setImage("endFish/Leviathans/leviathan_" + type + ".png");
         speed = settings.getSwimSpeed();
+        int rad = 4;
+        if (type == 2) {
+            rad = 9;
+        }
+        if (type == 3) {
+            rad = 6;
+        }
+        bite = new KillVolume(this, rad, this::isImmuneToBite, 1.0);
     }
 
     @Override
@@ -47,37 +56,38 @@ public class Leviathan extends EndingFish
             {
                 speed += 0.001;
             } else {
-                //Starts eating eggs after a while
+                //Starts eating eggs after a while, ahead of where it is swimming
                 int speedMulti = 18;
-                int rad = 4;
                 if (type == 2) {
                     speedMulti = 8;
-                    rad = 9;
                 }
                 if (type == 3) {
                     speedMulti = 14;
-                    rad = 6;
-                }
-                move(speed*speedMulti);
-                PixelWorld world = getWorld();
-                List<Egg> egg = getObjectsInRange(rad, Egg.class);
-                for (Egg e:egg) {
-                    if (!e.isLeviathanEgg()) {
-                        world.removeObject(e);
-                    }
                 }
+                double reach = speed*speedMulti;
+                double angle = Math.toRadians(getHeading());
+                bite.setCenter(getDoubleX() + Math.cos(angle)*reach, getDoubleY() + Math.sin(angle)*reach);
+                ((SimulationWorld) getWorld()).addKillVolume(bite);
                 //Starts eating all of the fish that arent Leviathans
                 if (doomTimer < -500) {
                     settings.setMinDepth(SimulationWorld.SEA_SURFACE_Y-8);
-                    List<Fish> fish = getObjectsInRange(rad, Fish.class);
-                    for (Fish f:fish) {
-                        if (!f.getClass().isAssignableFrom(Leviathan.class)) {
-                            world.removeObject(f);
-                        }
-                    }
                 }
-                move(-speed*speedMulti);
             }
         }
     }
+
+    /**
+     * Tests if a fish or egg is safe from being eaten by this Leviathan.
+     * Leviathan eggs are never eaten, and other Leviathans are never eaten.
+     * Fish are only eaten once this Leviathan has gone feral for long enough.
+     *
+     * @param victim the fish or egg to test
+     * @return true if the victim is immune, false otherwise
+     */
+    private boolean isImmuneToBite(Actor victim) {
+        if (victim instanceof Egg) {
+            return ((Egg) victim).isLeviathanEgg();
+        }
+        return doomTimer >= -500 || victim.getClass().isAssignableFrom(Leviathan.class);
+    }
 }
@@ -0,0 +1,159 @@
+import java.util.Arrays;
+
+/**
+ * A reusable collection that keeps the items closest to some point out of all
+ * items offered to it, up to a maximum number of items.
+ * <p>
+ * Items are offered along with their distance. While the selection is full,
+ * it is kept as a max-heap ordered by distance, so offering an item only has to
+ * compare it against the furthest item currently selected. With no limit, every
+ * offered item is kept in the order it was offered.
+ * <p>
+ * The arrays backing a NearestSelection are kept between uses, so it does not
+ * allocate once it has grown to its largest size.
+ *
+ * @version April 2024
+ */
+public class NearestSelection<T> {
+    private Object[] items;
+    private double[] distances;
+    private int size;
+    // The maximum number of items to keep, or 0 for no limit
+    private int capacity;
+
+    /**
+     * Creates a new, empty NearestSelection with no limit.
+     */
+    public NearestSelection() {
+        items = new Object[8];
+        distances = new double[8];
+        size = 0;
+        capacity = 0;
+    }
+
+    /**
+     * Removes all items from this selection, and sets the maximum number of
+     * items it will keep from now on.
+     *
+     * @param capacity the maximum number of items to keep, or 0 or less for no limit
+     */
+    public void reset(int capacity) {
+        clear();
+        this.capacity = Math.max(capacity, 0);
+    }
+
+    /**
+     * Removes all items from this selection.
+     */
+    public void clear() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Offers an item to this selection. If this selection is full, the item
+     * replaces the furthest selected item only if it is closer than it.
+     *
+     * @param item the item to offer
+     * @param distance the distance of the item from the point being selected around
+     */
+    public void offer(T item, double distance) {
+        if (capacity == 0 || size < capacity) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            items[size] = item;
+            distances[size] = distance;
+            size++;
+            if (capacity != 0) {
+                siftUp(size - 1);
+            }
+        } else if (distance < distances[0]) {
+            items[0] = item;
+            distances[0] = distance;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Gets the number of items currently selected.
+     *
+     * @return the number of items in this selection
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a selected item. Selected items are in no particular order, except
+     * with no limit, where they are in the order they were offered.
+     *
+     * @param index the index of the item to get, from 0 to {@link #size} - 1
+     * @return the selected item at the given index
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) items[index];
+    }
+
+    /**
+     * Gets the distance a selected item was offered with.
+     *
+     * @param index the index of the item, from 0 to {@link #size} - 1
+     * @return the distance of the selected item at the given index
+     */
+    public double getDistance(int index) {
+        return distances[index];
+    }
+
+    /**
+     * Moves the item at the given index up the heap until its parent is no
+     * closer than it.
+     */
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (distances[parent] >= distances[index]) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    /**
+     * Moves the item at the given index down the heap until neither of its
+     * children is further than it.
+     */
+    private void siftDown(int index) {
+        while (true) {
+            int left = index * 2 + 1;
+            int right = left + 1;
+            int furthest = index;
+            if (left < size && distances[left] > distances[furthest]) {
+                furthest = left;
+            }
+            if (right < size && distances[right] > distances[furthest]) {
+                furthest = right;
+            }
+            if (furthest == index) {
+                break;
+            }
+            swap(index, furthest);
+            index = furthest;
+        }
+    }
+
+    /**
+     * Swaps the items and distances at two indices.
+     */
+    private void swap(int i, int j) {
+        Object item = items[i];
+        items[i] = items[j];
+        items[j] = item;
+        double distance = distances[i];
+        distances[i] = distances[j];
+        distances[j] = distance;
+    }
+}
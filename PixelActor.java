@@ -1,5 +1,7 @@
 import greenfoot.*;
 import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
 
 /**
  * An special actor class designed to work with PixelWorld, and has a bunch of
@@ -13,21 +15,32 @@ public abstract class PixelActor extends Actor {
     // Fill all images used to transform all actors with translucent backgrounds and show their positions with a point
     private static final boolean DEBUG_SHOW_IMAGE_BOUNDS = false;
 
-    // The original upright image
+    // Images loaded from files by path, shared by all actors so their rotated images can be shared too
+    private static final Map<String, GreenfootImage> imagesByPath = new HashMap<String, GreenfootImage>();
+
+    // The image this actor was last given, before being copied, used to share rotated images through the RotationCache
+    private GreenfootImage sourceImage;
+    // The original upright image, a mirrored copy of the source image only created when needed
     private GreenfootImage originalImage;
     private int originalWidth;
     private int originalHeight;
     private int centerOfRotationX;
     private int centerOfRotationY;
-    // See createExpandedImage()
+    // See createExpandedImage(), only created when a rotated image is not already cached
     private GreenfootImage expandedImage;
     // See createExpandedImage()
     private int maxDimension;
-    // The image after transformations (rotation and mirror)
+    // The image after transformations (rotation and mirror), possibly shared with other actors
     private GreenfootImage transformedImage;
     // The width and height of the image after transformations
     private int transformedWidth;
     private int transformedHeight;
+    // The offset from this actor's location to the center of the transformed image, see getRenderX()
+    private double renderCenterOffsetX;
+    private double renderCenterOffsetY;
+    // Whether the transformed image no longer matches the current image, rotation, mirroring, and center of rotation
+    // Any number of changes between uses of the transformed image thus only cause it to be updated once
+    private boolean transformDirty;
     // X and Y coordinates
     protected double x;
     protected double y;
@@ -40,8 +53,12 @@ public abstract class PixelActor extends Actor {
     private boolean mirrorY;
     // Whether the PixelActor will be rendered
     private boolean visible;
+    // The transparency the transformed image is drawn with, from 0 to 255
+    private int transparency;
     // The layer which this actor belongs to
     private Layer layer;
+    // Where this actor is stored within the PixelWorld it has been added to
+    private final ActorSlot actorSlot;
 
     /**
      * Create a PixelActor with a starting GreenfootImage and a defined rendering layer.
@@ -56,7 +73,9 @@ public abstract class PixelActor extends Actor {
         rotation = 0;
         mirrorX = mirrorY = false;
         visible = true;
+        transparency = 255;
         this.layer = layer;
+        actorSlot = new ActorSlot();
 
         setImage(image);
         // Ensure Greenfoot does not draw this actor's image on its own
@@ -70,7 +89,7 @@ public abstract class PixelActor extends Actor {
      * @param layer The {@link Layer} to add this actor to
      */
     public PixelActor(String imagePath, Layer layer) {
-        this(new GreenfootImage(imagePath), layer);
+        this(getSharedImage(imagePath), layer);
     }
 
     /**
@@ -87,20 +106,55 @@ public abstract class PixelActor extends Actor {
      * <p>If any additional rendering aside from rendering its image need to
      * be done, override this method.</p>
      *
-     * @param canvas The GreenfootImage to render the PixelActor onto
+     * @param canvas The Canvas to render the PixelActor onto
      *        (almost always just the PixelWorld canvas)
      */
-    public void render(GreenfootImage canvas) {
-        if (originalImage == null || !visible) return;
-        DoublePair center = getImageOffsetGlobalPosition(originalWidth / 2, originalHeight / 2);
-        DoublePair imagePos = new DoublePair(center.x - transformedWidth / 2, center.y - transformedHeight / 2);
-        canvas.drawImage(transformedImage, (int) Math.ceil(imagePos.x), (int) Math.ceil(imagePos.y));
+    public void render(Canvas canvas) {
+        if (sourceImage == null || !visible) return;
+        updateTransformedImage();
+        // The transformed image may be shared, so this actor's transparency is only applied while drawing it
+        canvas.drawImage(transformedImage, getRenderX(), getRenderY(), transparency);
         if (DEBUG_SHOW_IMAGE_BOUNDS) {
-            canvas.setColor(Color.RED);
-            canvas.fillRect(getX(), getY(), 1, 1);
+            canvas.fillRect(getX(), getY(), 1, 1, Color.RED);
         }
     }
 
+    /**
+     * Whether this actor's {@link #render} method only draws its transformed
+     * image at its render position with its transparency, so that its world
+     * may draw the image itself, such as when rendering in parallel.
+     * <p>
+     * Subclasses that override {@link #render} to draw anything else must
+     * override this method to return false.
+     *
+     * @return True if rendering this actor only draws its transformed image, false otherwise
+     */
+    public boolean isRenderedAsImage() {
+        return !DEBUG_SHOW_IMAGE_BOUNDS;
+    }
+
+    /**
+     * Get the x coordinate on the canvas of the left edge of the transformed
+     * image, where it is drawn by {@link #render}.
+     *
+     * @return The x coordinate of the transformed image's left edge, in canvas pixels
+     */
+    public int getRenderX() {
+        updateTransformedImage();
+        return (int) Math.ceil(renderCenterOffsetX + x - transformedWidth / 2);
+    }
+
+    /**
+     * Get the y coordinate on the canvas of the top edge of the transformed
+     * image, where it is drawn by {@link #render}.
+     *
+     * @return The y coordinate of the transformed image's top edge, in canvas pixels
+     */
+    public int getRenderY() {
+        updateTransformedImage();
+        return (int) Math.ceil(renderCenterOffsetY + y - transformedHeight / 2);
+    }
+
     /**
      * Returns a null GreenfootImage. Greenfoot calls this method when painting
      * the world, but we don't want PixelActors to be automatically drawn by
@@ -119,51 +173,67 @@ public abstract class PixelActor extends Actor {
      * @return The original image of the PixelActor
      */
     public GreenfootImage getOriginalImage() {
+        if (originalImage == null && sourceImage != null) {
+            createOriginalImage();
+        }
         return originalImage;
     }
 
     /**
      * Get the transformed image of the PixelActor.
+     * <p>This image may be shared with other actors showing the same image
+     * at the same rotation, and must not be modified.</p>
      *
      * @return The transformed image of the PixelActor
      */
     public GreenfootImage getTransformedImage() {
+        updateTransformedImage();
         return transformedImage;
     }
 
     /**
      * Set the original image of the PixelActor to a copy of a GreenfootImage.
+     * <p>Rotated versions of the given image are shared with all other actors
+     * given the same image through the {@link RotationCache}, so the image
+     * must not be modified after it is passed to this method, except as
+     * described by {@link #refreshImage}.</p>
      *
      * @param newImage The GreenfootImage to set as the new image
      */
     @Override
     public void setImage(GreenfootImage newImage) {
+        sourceImage = newImage;
+        originalImage = null;
+        expandedImage = null;
         if (newImage == null) {
-            originalImage = null;
+            transformedImage = null;
             return;
         }
         originalWidth = newImage.getWidth();
         originalHeight = newImage.getHeight();
-        if (DEBUG_SHOW_IMAGE_BOUNDS) {
-            originalImage = new GreenfootImage(originalWidth, originalHeight);
-            originalImage.setColor(new Color(255, 0, 0, 64));
-            originalImage.fill();
-            originalImage.drawImage(newImage, 0, 0);
-        } else {
-            originalImage = new GreenfootImage(newImage);
-        }
         centerOfRotationX = originalWidth / 2;
         centerOfRotationY = originalHeight / 2;
         if (getMirrorX()) {
-            originalImage.mirrorHorizontally();
             centerOfRotationX = originalWidth - 1 - centerOfRotationX;
         }
         if (getMirrorY()) {
-            originalImage.mirrorVertically();
             centerOfRotationY = originalHeight - 1 - centerOfRotationY;
         }
-        createExpandedImage();
-        createRotatedImage();
+        transformDirty = true;
+    }
+
+    /**
+     * Update the PixelActor after the image last passed to {@link #setImage}
+     * was modified in place, discarding every rotated version of it.
+     * <p>This should only be used for images that belong to this actor alone.
+     * Images shared with other actors must never be modified.</p>
+     */
+    public void refreshImage() {
+        if (sourceImage == null) return;
+        RotationCache.remove(sourceImage);
+        originalImage = null;
+        expandedImage = null;
+        transformDirty = true;
     }
 
     /**
@@ -173,7 +243,24 @@ public abstract class PixelActor extends Actor {
      */
     @Override
     public void setImage(String path) {
-        setImage(new GreenfootImage(path));
+        setImage(getSharedImage(path));
+    }
+
+    /**
+     * Get the image loaded from an image file, loading it only the first time
+     * any actor uses it. The returned image is shared and must not be
+     * modified.
+     *
+     * @param path The path to the image file
+     * @return The shared GreenfootImage loaded from the file
+     */
+    private static GreenfootImage getSharedImage(String path) {
+        GreenfootImage image = imagesByPath.get(path);
+        if (image == null) {
+            image = new GreenfootImage(path);
+            imagesByPath.put(path, image);
+        }
+        return image;
     }
 
     /**
@@ -197,7 +284,7 @@ public abstract class PixelActor extends Actor {
         centerOfRotationY = y;
         if (getMirrorX()) centerOfRotationX = originalWidth - 1 - centerOfRotationX;
         if (getMirrorY()) centerOfRotationY = originalHeight - 1 - centerOfRotationY;
-        createRotatedImage();
+        transformDirty = true;
     }
 
     /**
@@ -218,12 +305,34 @@ public abstract class PixelActor extends Actor {
         return centerOfRotationY;
     }
 
+    /**
+     * Generate the original image as a copy of the source image, mirrored
+     * according to the current mirror settings.
+     */
+    private void createOriginalImage() {
+        if (DEBUG_SHOW_IMAGE_BOUNDS) {
+            originalImage = new GreenfootImage(originalWidth, originalHeight);
+            originalImage.setColor(new Color(255, 0, 0, 64));
+            originalImage.fill();
+            originalImage.drawImage(sourceImage, 0, 0);
+        } else {
+            originalImage = new GreenfootImage(sourceImage);
+        }
+        if (getMirrorX()) {
+            originalImage.mirrorHorizontally();
+        }
+        if (getMirrorY()) {
+            originalImage.mirrorVertically();
+        }
+    }
+
     /**
      * Generate the image that is a version of the centered image but with extra
      * margins, as to make it just large enough to contain any potential rotation
      * of the centered image.
      */
     private void createExpandedImage() {
+        GreenfootImage originalImage = getOriginalImage();
         if (originalImage == null) return;
         maxDimension = (int) Math.ceil(Math.hypot(originalWidth, originalHeight));
         expandedImage = new GreenfootImage(maxDimension, maxDimension);
@@ -237,28 +346,63 @@ public abstract class PixelActor extends Actor {
     }
 
     /**
-     * Generate the rotated image while keeping it centered and expand the image
-     * in order to fully contain the rotated image.
+     * Find the rotated image while keeping it centered and expand the image
+     * in order to fully contain the rotated image, if any transformations have
+     * changed since it was last found.
+     * <p>Rotated images are shared through the {@link RotationCache}, so a new
+     * one is only generated the first time any actor showing the same image
+     * uses a particular whole-degree rotation.</p>
      */
-    private void createRotatedImage() {
-        if (originalImage == null) return;
-        double angle = Math.toRadians(rotation);
-        double sinAngle = Math.sin(angle);
-        double cosAngle = Math.cos(angle);
+    private void updateTransformedImage() {
+        if (!transformDirty || sourceImage == null) return;
+        transformDirty = false;
+        int angle = Math.floorMod((int) rotation, 360);
+        transformedImage = RotationCache.get(sourceImage, angle, mirrorX, mirrorY);
+        if (transformedImage == null) {
+            transformedImage = generateRotatedImage(angle);
+            RotationCache.put(sourceImage, angle, mirrorX, mirrorY, transformedImage);
+        }
+        transformedWidth = transformedImage.getWidth();
+        transformedHeight = transformedImage.getHeight();
+
+        // The center of the original image relative to the center of rotation, rotated as in getImageOffsetGlobalPosition()
+        int centerX = mirrorX ? originalWidth - 1 - originalWidth / 2 : originalWidth / 2;
+        int centerY = mirrorY ? originalHeight - 1 - originalHeight / 2 : originalHeight / 2;
+        double radians = Math.toRadians(rotation);
+        renderCenterOffsetX = (centerX - centerOfRotationX) * Math.cos(radians) - (centerY - centerOfRotationY) * Math.sin(radians);
+        renderCenterOffsetY = (centerX - centerOfRotationX) * Math.sin(radians) + (centerY - centerOfRotationY) * Math.cos(radians);
+    }
+
+    /**
+     * Generate a new rotated image of the original image while keeping it
+     * centered and expand the image in order to fully contain the rotated
+     * image.
+     *
+     * @param angle The angle to rotate the original image by, in whole degrees
+     * @return A new GreenfootImage containing the rotated original image
+     */
+    private GreenfootImage generateRotatedImage(int angle) {
+        if (expandedImage == null) {
+            createExpandedImage();
+        }
+        double radians = Math.toRadians(angle);
+        double sinAngle = Math.sin(radians);
+        double cosAngle = Math.cos(radians);
         // Round to nearest even number to prevent jittering
-        transformedWidth = (int) Math.ceil((Math.abs(originalWidth * cosAngle) + Math.abs(originalHeight * sinAngle)));
-        transformedHeight = (int) Math.ceil((Math.abs(originalWidth * sinAngle) + Math.abs(originalHeight * cosAngle)));
+        int width = (int) Math.ceil((Math.abs(originalWidth * cosAngle) + Math.abs(originalHeight * sinAngle)));
+        int height = (int) Math.ceil((Math.abs(originalWidth * sinAngle) + Math.abs(originalHeight * cosAngle)));
 
         GreenfootImage rotatedImage = new GreenfootImage(expandedImage);
-        rotatedImage.rotate((int) rotation);
-        transformedImage = new GreenfootImage((int) transformedWidth, (int) transformedHeight);
-        int localX = (int) Math.floor((transformedWidth - maxDimension) / 2);
-        int localY = (int) Math.floor((transformedHeight - maxDimension) / 2);
+        rotatedImage.rotate(angle);
+        GreenfootImage image = new GreenfootImage(width, height);
+        int localX = (int) Math.floor((width - maxDimension) / 2);
+        int localY = (int) Math.floor((height - maxDimension) / 2);
         if (DEBUG_SHOW_IMAGE_BOUNDS) {
-            transformedImage.setColor(new Color(0, 255, 0, 64));
-            transformedImage.fill();
+            image.setColor(new Color(0, 255, 0, 64));
+            image.fill();
         }
-        transformedImage.drawImage(rotatedImage, localX, localY);
+        image.drawImage(rotatedImage, localX, localY);
+        return image;
     }
 
     /**
@@ -270,8 +414,7 @@ public abstract class PixelActor extends Actor {
      */
     @Override
     public void setLocation(int x, int y) {
-        this.x = (double) x;
-        this.y = (double) y;
+        setLocation((double) x, (double) y);
     }
 
     /**
@@ -284,6 +427,10 @@ public abstract class PixelActor extends Actor {
     public void setLocation(double x, double y) {
         this.x = x;
         this.y = y;
+        PixelWorld world = getWorld();
+        if (world != null) {
+            world.updateSpatialIndex(this);
+        }
     }
 
     /**
@@ -333,8 +480,8 @@ public abstract class PixelActor extends Actor {
         }
         centerOfRotationX = originalWidth - 1 - centerOfRotationX;
         mirrorX = mirror;
-        createExpandedImage();
-        createRotatedImage();
+        expandedImage = null;
+        transformDirty = true;
     }
 
     /**
@@ -349,8 +496,8 @@ public abstract class PixelActor extends Actor {
         }
         centerOfRotationY = originalHeight - 1 - centerOfRotationY;
         mirrorY = mirror;
-        createExpandedImage();
-        createRotatedImage();
+        expandedImage = null;
+        transformDirty = true;
     }
 
     /**
@@ -392,21 +539,7 @@ public abstract class PixelActor extends Actor {
             remainder += 360.0;
         }
         this.rotation = remainder;
-        createRotatedImage();
-    }
-
-    /**
-     * Set the rotation of the image as a double,
-     * and potentially update the image.
-     *
-     * @param rotation The rotation angle in degrees
-     * @param updateImage Whether to update the image immediately
-     *        (this may be useful for performance if the method needs
-     *        to be called multiple times in a single frame)
-     */
-    public void setRotation(double rotation, boolean updateImage) {
-        this.rotation = rotation;
-        if (updateImage) createRotatedImage();
+        transformDirty = true;
     }
 
     /**
@@ -447,8 +580,7 @@ public abstract class PixelActor extends Actor {
         double angle = Math.toRadians(heading);
         double dx = Math.cos(angle) * distance;
         double dy = Math.sin(angle) * distance;
-        x += dx;
-        y += dy;
+        setLocation(x + dx, y + dy);
     }
 
     /**
@@ -513,6 +645,7 @@ public abstract class PixelActor extends Actor {
      * @return The width of the transformed image
      */
     public double getTransformedWidth() {
+        updateTransformedImage();
         return transformedWidth;
     }
 
@@ -522,6 +655,7 @@ public abstract class PixelActor extends Actor {
      * @return The height of the transformed image
      */
     public double getTransformedHeight() {
+        updateTransformedImage();
         return transformedHeight;
     }
 
@@ -550,6 +684,18 @@ public abstract class PixelActor extends Actor {
         return new DoublePair(rotatedOffset.x + x, rotatedOffset.y + y);
     }
 
+    /**
+     * Get the slot describing where this PixelActor is stored within the
+     * PixelWorld it has been added to.
+     * <p>This is managed by {@link PixelWorld} and should not be needed
+     * elsewhere.</p>
+     *
+     * @return The {@link ActorSlot} of this PixelActor
+     */
+    public ActorSlot getActorSlot() {
+        return actorSlot;
+    }
+
     /**
      * Whether the PixelActor is visible.
      *
@@ -575,7 +721,16 @@ public abstract class PixelActor extends Actor {
      * @param transparency The transparency value between 0 and 255 (inclusive)
      */
     public void setTransparency(int transparency) {
-        transformedImage.setTransparency(transparency);
+        this.transparency = transparency;
+    }
+
+    /**
+     * Get the transparency the PixelActor is rendered with.
+     *
+     * @return The transparency value between 0 and 255 (inclusive)
+     */
+    public int getTransparency() {
+        return transparency;
     }
 
     /**
@@ -5,6 +5,22 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.EnumMap;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 
 /**
  * A type of world whose display image is an upscaled version of its canvas
@@ -16,6 +32,18 @@ import java.util.EnumMap;
  * This class handles separating objects of the PixelActor class by layer for
  * rendering. This render order is separate from the paint order of all Actor
  * objects defined by {@link #setPaintOrder}.
+ * <p>
+ * PixelActor objects are also stored in a {@link SpatialGrid} for each of their
+ * classes, kept up to date as they move, so that looking for objects within
+ * range of a point only needs to consider objects near that point.
+ * <p>
+ * Worlds whose contents mostly stay still may render with
+ * {@link #renderIncrementally} instead of redrawing their whole canvas every
+ * act, so that only the regions of the canvas that changed are redrawn.
+ * <p>
+ * Worlds with many actors may also enable parallel rendering with
+ * {@link #setParallelRendering}, so that {@link #renderPixelActors} splits the
+ * canvas into horizontal tiles and draws them at the same time.
  *
  * @author Martin Baldwin
  * @author Andrew Wang
@@ -25,21 +53,83 @@ public abstract class PixelWorld extends World {
     /** The scale factor of all PixelWorld display images. */
     public static final int PIXEL_SCALE = 4;
 
+    /** The default size of the cells of the spatial index used to look up PixelActors by location, in canvas pixels. */
+    public static final int SPATIAL_CELL_SIZE = 16;
+
+    /** The smallest height of the tiles the canvas is split into when rendering in parallel, in canvas pixels. */
+    public static final int MIN_RENDER_TILE_HEIGHT = 8;
+
+    /** The fewest actors in a row that are drawn in parallel, below which splitting the canvas costs more than it saves. */
+    public static final int MIN_PARALLEL_BATCH_SIZE = 16;
+
+    // The pool tiles are rendered on when rendering in parallel, kept apart from the common pool so rendering never waits behind other tasks
+    // It is shared by every PixelWorld for as long as the program runs and is never shut down: its workers are daemon threads,
+    // so they never keep the program running, and they exit on their own once no world has rendered in parallel for a while
+    private static final ForkJoinPool renderPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), PixelWorld::createRenderThread, null, false);
+
     private final int worldWidth;
     private final int worldHeight;
     private final GreenfootImage canvas;
+    // The canvas image wrapped so that PixelActors can render onto it
+    private final ImageCanvas imageCanvas;
+    // The background image of this world, into which the canvas is upscaled every frame
+    private final GreenfootImage displayImage;
+    // Reused to hold rows of canvas pixels when the canvas and display rasters cannot be accessed directly
+    private final int[] canvasRow;
+    private final int[] displayRow;
+
+    // Regions of the canvas that must be redrawn by the next incremental render, see renderIncrementally()
+    // Each region is stored as four values in a row: its left, top, right, and bottom edges
+    private int[] damagedRegions;
+    private int damagedRegionCount;
+    // Whether the whole canvas must be redrawn by the next incremental render
+    private boolean canvasInvalid;
+    // The images and fade opacity the canvas was last incrementally rendered with
+    private GreenfootImage lastBackground;
+    private GreenfootImage lastForeground;
+    private int lastFadeAlpha;
 
     // All actors in this world mapped by their classes, for efficient access
     private Map<Class<? extends Actor>, List<Actor>> actorMap;
 
+    // The number of actors in this world that are instances of each class, including superclasses and interfaces
+    private Map<Class<?>, Integer> objectCounts;
+    // Every class and interface each class of actor is an instance of, see getTypeHierarchy()
+    private Map<Class<?>, Set<Class<?>>> typeHierarchies;
+
     // PixelActor objects by their assigned layer, for rendering order
+    // Removed actors leave a null tombstone behind until their layer is compacted, preserving order
     private Map<Layer, List<PixelActor>> actorsByLayer;
+    // The number of tombstones in the list of each layer, indexed by layer ordinal
+    private int[] layerTombstones;
+
+    // PixelActor objects mapped by their classes to grids of their locations, for efficient range queries
+    private Map<Class<? extends Actor>, SpatialGrid> spatialIndex;
+
+    // Every class of objects that has been looked up mapped to the stored objects of all classes it covers
+    private Map<Class<?>, ClassBucket> classBuckets;
 
-    private GreenfootImage fadeImage;
+    // Lookup tables mapping each colour and alpha component to its value once faded, see updateFadeTables()
+    private final int[] fadeColourTable;
+    private final int[] fadeAlphaTable;
+    // The fade opacity the lookup tables were last built for
+    private int fadeTableAlpha;
     private double fadePercentage;
     // negative for fade in, positive for fade out
     private double fadeSpeed;
 
+    // Whether renderPixelActors() draws tiles of the canvas in parallel
+    private boolean parallelRendering;
+    // The images, positions and opacities of the actors waiting to be drawn in parallel, see renderBatch()
+    // Images are fetched from their GreenfootImages on the act thread, so that tiles only ever read them
+    private BufferedImage[] batchImages;
+    private int[] batchXs;
+    private int[] batchYs;
+    private float[] batchAlphas;
+    private int batchSize;
+    // The buffer each tile of the canvas is drawn into before it is copied back into the canvas, see renderTile()
+    private BufferedImage[] tileImages;
+
     /**
      * Creates a new PixelWorld with the specified dimensions.
      * <p>
@@ -51,17 +141,38 @@ public abstract class PixelWorld extends World {
     public PixelWorld(int worldWidth, int worldHeight) {
         super(worldWidth * PIXEL_SCALE, worldHeight * PIXEL_SCALE, 1, false);
         canvas = new GreenfootImage(worldWidth, worldHeight);
+        imageCanvas = new ImageCanvas(canvas);
         this.worldWidth = worldWidth;
         this.worldHeight = worldHeight;
+        displayImage = new GreenfootImage(worldWidth * PIXEL_SCALE, worldHeight * PIXEL_SCALE);
+        canvasRow = new int[worldWidth];
+        displayRow = new int[worldWidth * PIXEL_SCALE];
+        setBackground(displayImage);
+        damagedRegions = new int[64];
+        damagedRegionCount = 0;
+        canvasInvalid = true;
         actorMap = new HashMap<Class<? extends Actor>, List<Actor>>();
+        objectCounts = new HashMap<Class<?>, Integer>();
+        typeHierarchies = new HashMap<Class<?>, Set<Class<?>>>();
         actorsByLayer = new EnumMap<Layer, List<PixelActor>>(Layer.class);
         for (Layer layer : Layer.values()) {
             actorsByLayer.put(layer, new ArrayList<PixelActor>());
         }
+        layerTombstones = new int[Layer.values().length];
+        spatialIndex = new HashMap<Class<? extends Actor>, SpatialGrid>();
+        classBuckets = new HashMap<Class<?>, ClassBucket>();
+
+        fadeColourTable = new int[256];
+        fadeAlphaTable = new int[256];
+        fadeTableAlpha = -1;
 
-        fadeImage = new GreenfootImage(worldWidth, worldHeight);
-        fadeImage.setColor(Color.BLACK);
-        fadeImage.fill();
+        parallelRendering = false;
+        batchImages = new BufferedImage[64];
+        batchXs = new int[64];
+        batchYs = new int[64];
+        batchAlphas = new float[64];
+        batchSize = 0;
+        tileImages = new BufferedImage[0];
 
         SoundEffect.resetState();
     }
@@ -79,29 +190,455 @@ public abstract class PixelWorld extends World {
         return canvas;
     }
 
+    /**
+     * Returns the canvas image of this world wrapped as a {@link Canvas}, for
+     * rendering PixelActors onto it.
+     *
+     * @return the Canvas drawing onto this world's canvas image
+     */
+    public ImageCanvas getImageCanvas() {
+        return imageCanvas;
+    }
+
     /**
      * Draws the display image of this world.
      * <p>
      * The canvas image of this world is scaled and drawn onto the world
      * background. This method should be called after all world rendering has
      * been done.
+     * <p>
+     * Each canvas pixel is copied into a square of {@link #PIXEL_SCALE} by
+     * {@link #PIXEL_SCALE} display pixels (nearest-neighbour scaling), directly
+     * into the same background image every frame.
      */
     public void updateImage() {
-        renderFade();
-        GreenfootImage scaled = new GreenfootImage(canvas);
-        scaled.scale(worldWidth * PIXEL_SCALE, worldHeight * PIXEL_SCALE);
-        setBackground(scaled);
+        updateFade();
+        fadeRegion(0, 0, worldWidth, worldHeight);
+        upscaleRegion(0, 0, worldWidth, worldHeight);
+        // Every region of the canvas may have been drawn over, so incremental rendering must start over
+        damagedRegionCount = 0;
+        canvasInvalid = true;
+    }
+
+    /**
+     * Draws the display image of this world, only redrawing the regions of the
+     * canvas that have changed since the last time this method was called.
+     * <p>
+     * This replaces drawing the background, rendering PixelActors, drawing the
+     * foreground and calling {@link #updateImage}, for worlds whose canvas only
+     * consists of those images. A region of the canvas is redrawn when an actor
+     * within it moves, changes its image or transparency, or is added or
+     * removed. The whole canvas is redrawn when the background, foreground, or
+     * fade changes, or after {@link #invalidateCanvas} is called.
+     * <p>
+     * Actors rendered this way should only draw their transformed image, since
+     * the regions that need to be redrawn are found from their images' bounds.
+     *
+     * @param background the image to draw underneath all actors, or null for none
+     * @param foreground the image to draw on top of all actors, or null for none
+     */
+    public void renderIncrementally(GreenfootImage background, GreenfootImage foreground) {
+        updateFade();
+        int fadeAlpha = (int) (255 * fadePercentage);
+        if (background != lastBackground || foreground != lastForeground || fadeAlpha != lastFadeAlpha) {
+            canvasInvalid = true;
+        }
+        lastBackground = background;
+        lastForeground = foreground;
+        lastFadeAlpha = fadeAlpha;
+
+        collectActorDamage();
+        if (!canvasInvalid) {
+            mergeDamagedRegions();
+        }
+        if (canvasInvalid) {
+            damagedRegionCount = 0;
+            addDamagedRegion(0, 0, worldWidth, worldHeight);
+        }
+        redrawDamagedRegions(background, foreground);
+        for (int i = 0; i < damagedRegionCount * 4; i += 4) {
+            int x = damagedRegions[i];
+            int y = damagedRegions[i + 1];
+            int width = damagedRegions[i + 2] - x;
+            int height = damagedRegions[i + 3] - y;
+            fadeRegion(x, y, width, height);
+            upscaleRegion(x, y, width, height);
+        }
+        damagedRegionCount = 0;
+        canvasInvalid = false;
+    }
+
+    /**
+     * Marks the whole canvas as needing to be redrawn by the next call to
+     * {@link #renderIncrementally}. This should be called after modifying the
+     * background or foreground image in place.
+     */
+    public void invalidateCanvas() {
+        canvasInvalid = true;
+    }
+
+    /**
+     * Draws an image over the display image of this world until the next
+     * frame is drawn, upscaled in the same way as the canvas.
+     * <p>
+     * The image is never drawn onto the canvas, so it is left out of anything
+     * that reads the canvas, such as recordings. This should be called after
+     * {@link #updateImage} or {@link #renderIncrementally} every frame the
+     * image should be shown for.
+     *
+     * @param image the image to draw
+     * @param x the x coordinate of the top left corner of the image, in canvas pixels
+     * @param y the y coordinate of the top left corner of the image, in canvas pixels
+     */
+    public void drawOverlay(GreenfootImage image, int x, int y) {
+        Graphics2D graphics = displayImage.getAwtImage().createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        graphics.drawImage(image.getAwtImage(), x * PIXEL_SCALE, y * PIXEL_SCALE, image.getWidth() * PIXEL_SCALE, image.getHeight() * PIXEL_SCALE, null);
+        graphics.dispose();
+        // The canvas beneath the image must be upscaled again to remove it
+        addDamagedRegion(x, y, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Compares the current position, image, and transparency of every
+     * PixelActor with how it was last drawn, marking the regions it covered
+     * and now covers as damaged if any have changed.
+     */
+    private void collectActorDamage() {
+        for (Map.Entry<Layer, List<PixelActor>> entry : actorsByLayer.entrySet()) {
+            if (layerTombstones[entry.getKey().ordinal()] > 0) {
+                compactLayer(entry.getKey());
+            }
+            List<PixelActor> layerActors = entry.getValue();
+            for (int i = 0; i < layerActors.size(); i++) {
+                PixelActor actor = layerActors.get(i);
+                ActorSlot slot = actor.getActorSlot();
+                GreenfootImage image = actor.isVisible() ? actor.getTransformedImage() : null;
+                int x = image == null ? 0 : actor.getRenderX();
+                int y = image == null ? 0 : actor.getRenderY();
+                int transparency = actor.getTransparency();
+                if (image == slot.drawnImage && (image == null || (x == slot.drawnX && y == slot.drawnY && transparency == slot.drawnTransparency))) {
+                    continue;
+                }
+                if (slot.drawnImage != null) {
+                    addDamagedRegion(slot.drawnX, slot.drawnY, slot.drawnImage.getWidth(), slot.drawnImage.getHeight());
+                }
+                if (image != null) {
+                    addDamagedRegion(x, y, image.getWidth(), image.getHeight());
+                }
+                slot.drawnImage = image;
+                slot.drawnX = x;
+                slot.drawnY = y;
+                slot.drawnTransparency = transparency;
+            }
+        }
+    }
+
+    /**
+     * Marks a region of the canvas as needing to be redrawn by the next
+     * incremental render, clipped to the canvas.
+     */
+    private void addDamagedRegion(int x, int y, int width, int height) {
+        int left = Math.max(x, 0);
+        int top = Math.max(y, 0);
+        int right = Math.min(x + width, worldWidth);
+        int bottom = Math.min(y + height, worldHeight);
+        if (left >= right || top >= bottom) {
+            return;
+        }
+        if (damagedRegionCount * 4 == damagedRegions.length) {
+            damagedRegions = Arrays.copyOf(damagedRegions, damagedRegions.length * 2);
+        }
+        int i = damagedRegionCount++ * 4;
+        damagedRegions[i] = left;
+        damagedRegions[i + 1] = top;
+        damagedRegions[i + 2] = right;
+        damagedRegions[i + 3] = bottom;
+    }
+
+    /**
+     * Merges overlapping damaged regions until no two regions overlap, so
+     * that no pixel is redrawn twice.
+     * <p>
+     * If the damaged regions end up covering most of the canvas, the whole
+     * canvas is marked as invalid instead.
+     */
+    private void mergeDamagedRegions() {
+        int[] regions = damagedRegions;
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < damagedRegionCount * 4; i += 4) {
+                for (int j = damagedRegionCount * 4 - 4; j > i; j -= 4) {
+                    if (regions[i] < regions[j + 2] && regions[j] < regions[i + 2]
+                        && regions[i + 1] < regions[j + 3] && regions[j + 1] < regions[i + 3]) {
+                        // Grow the earlier region to cover both, then move the last region into the later one's place
+                        regions[i] = Math.min(regions[i], regions[j]);
+                        regions[i + 1] = Math.min(regions[i + 1], regions[j + 1]);
+                        regions[i + 2] = Math.max(regions[i + 2], regions[j + 2]);
+                        regions[i + 3] = Math.max(regions[i + 3], regions[j + 3]);
+                        int last = --damagedRegionCount * 4;
+                        System.arraycopy(regions, last, regions, j, 4);
+                        merged = true;
+                    }
+                }
+            }
+        }
+
+        int damagedArea = 0;
+        for (int i = 0; i < damagedRegionCount * 4; i += 4) {
+            damagedArea += (regions[i + 2] - regions[i]) * (regions[i + 3] - regions[i + 1]);
+        }
+        if (damagedArea > worldWidth * worldHeight / 2) {
+            canvasInvalid = true;
+        }
+    }
+
+    /**
+     * Redraws every damaged region of the canvas: the background and
+     * foreground clipped to each region, and every actor overlapping a region
+     * clipped to it. Since the regions do not overlap, every actor only needs
+     * to be visited once, in render order.
+     * <p>
+     * Actors are drawn with the image, position, and transparency recorded
+     * when their damage was collected, which is what their {@link PixelActor#render}
+     * method would draw.
+     */
+    private void redrawDamagedRegions(GreenfootImage background, GreenfootImage foreground) {
+        int[] regions = damagedRegions;
+        int end = damagedRegionCount * 4;
+        Graphics2D graphics = canvas.getAwtImage().createGraphics();
+        // Replace the regions' pixels entirely rather than blending over what was there
+        graphics.setComposite(background != null ? AlphaComposite.Src : AlphaComposite.Clear);
+        for (int i = 0; i < end; i += 4) {
+            graphics.setClip(regions[i], regions[i + 1], regions[i + 2] - regions[i], regions[i + 3] - regions[i + 1]);
+            if (background != null) {
+                graphics.drawImage(background.getAwtImage(), 0, 0, null);
+            } else {
+                graphics.fillRect(regions[i], regions[i + 1], regions[i + 2] - regions[i], regions[i + 3] - regions[i + 1]);
+            }
+        }
+
+        for (List<PixelActor> layerActors : actorsByLayer.values()) {
+            for (int a = 0; a < layerActors.size(); a++) {
+                PixelActor actor = layerActors.get(a);
+                if (actor == null) {
+                    continue;
+                }
+                ActorSlot slot = actor.getActorSlot();
+                GreenfootImage image = slot.drawnImage;
+                if (image == null) {
+                    continue;
+                }
+                // The actor's transparency is applied through the composite, as when rendering onto an ImageCanvas
+                float alpha = slot.drawnTransparency / 255.0f * image.getTransparency() / 255.0f;
+                if (alpha <= 0.0f) {
+                    continue;
+                }
+                int left = slot.drawnX;
+                int top = slot.drawnY;
+                int right = left + image.getWidth();
+                int bottom = top + image.getHeight();
+                boolean compositeSet = false;
+                for (int i = 0; i < end; i += 4) {
+                    if (left < regions[i + 2] && regions[i] < right && top < regions[i + 3] && regions[i + 1] < bottom) {
+                        if (!compositeSet) {
+                            graphics.setComposite(alpha >= 1.0f ? AlphaComposite.SrcOver : AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+                            compositeSet = true;
+                        }
+                        graphics.setClip(regions[i], regions[i + 1], regions[i + 2] - regions[i], regions[i + 3] - regions[i + 1]);
+                        graphics.drawImage(image.getAwtImage(), left, top, null);
+                    }
+                }
+            }
+        }
+
+        if (foreground != null) {
+            graphics.setComposite(AlphaComposite.SrcOver);
+            for (int i = 0; i < end; i += 4) {
+                graphics.setClip(regions[i], regions[i + 1], regions[i + 2] - regions[i], regions[i + 3] - regions[i + 1]);
+                graphics.drawImage(foreground.getAwtImage(), 0, 0, null);
+            }
+        }
+        graphics.dispose();
     }
 
     /**
-     * Renders the fade effect on the world.
+     * Upscales a region of the canvas into the display image.
      */
-    private void renderFade() {
+    private void upscaleRegion(int x, int y, int width, int height) {
+        BufferedImage source = canvas.getAwtImage();
+        BufferedImage target = displayImage.getAwtImage();
+        if (!blitPixels(source, target, x, y, width, height)) {
+            blitRows(source, target, x, y, width, height);
+        }
+    }
+
+    /**
+     * Upscales the canvas into the display image by copying pixel values
+     * straight between their rasters, if both store their pixels in the same
+     * packed integer format.
+     *
+     * @return true if the canvas was upscaled, false if the rasters could not be accessed directly
+     */
+    private boolean blitPixels(BufferedImage source, BufferedImage target, int x, int y, int width, int height) {
+        if (source.getType() != target.getType()) {
+            return false;
+        }
+        WritableRaster sourceRaster = source.getRaster();
+        WritableRaster targetRaster = target.getRaster();
+        if (!(sourceRaster.getDataBuffer() instanceof DataBufferInt)
+            || !(targetRaster.getDataBuffer() instanceof DataBufferInt)
+            || !(sourceRaster.getSampleModel() instanceof SinglePixelPackedSampleModel)
+            || !(targetRaster.getSampleModel() instanceof SinglePixelPackedSampleModel)) {
+            return false;
+        }
+        int[] sourcePixels = ((DataBufferInt) sourceRaster.getDataBuffer()).getData();
+        int[] targetPixels = ((DataBufferInt) targetRaster.getDataBuffer()).getData();
+        int sourceStride = ((SinglePixelPackedSampleModel) sourceRaster.getSampleModel()).getScanlineStride();
+        int targetStride = ((SinglePixelPackedSampleModel) targetRaster.getSampleModel()).getScanlineStride();
+        for (int row = y; row < y + height; row++) {
+            // Widen one row of the region into the first display row for it
+            int sourceIndex = row * sourceStride + x;
+            int rowStart = row * PIXEL_SCALE * targetStride + x * PIXEL_SCALE;
+            int targetIndex = rowStart;
+            for (int column = 0; column < width; column++) {
+                int pixel = sourcePixels[sourceIndex + column];
+                for (int i = 0; i < PIXEL_SCALE; i++) {
+                    targetPixels[targetIndex++] = pixel;
+                }
+            }
+            // Then repeat that display row for the rest of the canvas row's height
+            for (int i = 1; i < PIXEL_SCALE; i++) {
+                System.arraycopy(targetPixels, rowStart, targetPixels, rowStart + i * targetStride, width * PIXEL_SCALE);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Upscales a region of the canvas into the display image one row at a
+     * time, through the colour models of both images.
+     */
+    private void blitRows(BufferedImage source, BufferedImage target, int x, int y, int width, int height) {
+        for (int row = y; row < y + height; row++) {
+            source.getRGB(x, row, width, 1, canvasRow, 0, width);
+            int targetIndex = 0;
+            for (int column = 0; column < width; column++) {
+                for (int i = 0; i < PIXEL_SCALE; i++) {
+                    displayRow[targetIndex++] = canvasRow[column];
+                }
+            }
+            for (int i = 0; i < PIXEL_SCALE; i++) {
+                target.setRGB(x * PIXEL_SCALE, row * PIXEL_SCALE + i, width * PIXEL_SCALE, 1, displayRow, 0, width * PIXEL_SCALE);
+            }
+        }
+    }
+
+    /**
+     * Advances the fade effect on the world by one frame.
+     */
+    private void updateFade() {
         fadePercentage += fadeSpeed;
         fadePercentage = Math.max(Math.min(fadePercentage, 1.0), 0.0);
-        fadeImage.setTransparency((int) (255 * fadePercentage));
-        if (fadePercentage == 0.0) return;
-        canvas.drawImage(fadeImage, 0, 0);
+    }
+
+    /**
+     * Darkens a region of the canvas according to the current fade, giving the
+     * same result as drawing black over it with the fade's opacity.
+     * <p>
+     * Each pixel is faded through lookup tables rather than by blending an
+     * image over the canvas. Nothing is done while the world is not faded at
+     * all, and a fully faded region is simply filled with black.
+     */
+    private void fadeRegion(int x, int y, int width, int height) {
+        if (fadePercentage == 0.0) {
+            return;
+        }
+        BufferedImage image = canvas.getAwtImage();
+        if (fadePercentage == 1.0) {
+            Graphics2D graphics = image.createGraphics();
+            graphics.setComposite(AlphaComposite.Src);
+            graphics.setColor(java.awt.Color.BLACK);
+            graphics.fillRect(x, y, width, height);
+            graphics.dispose();
+            return;
+        }
+        updateFadeTables((int) (255 * fadePercentage));
+
+        WritableRaster raster = image.getRaster();
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_ARGB_PRE)
+            && raster.getDataBuffer() instanceof DataBufferInt
+            && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+            // Fade the pixels in place
+            int[] pixels = ((DataBufferInt) raster.getDataBuffer()).getData();
+            int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+            boolean premultiplied = type == BufferedImage.TYPE_INT_ARGB_PRE;
+            for (int row = y; row < y + height; row++) {
+                fadePixels(pixels, row * stride + x, width, premultiplied);
+            }
+        } else {
+            // Fade the pixels one row at a time through the colour model
+            for (int row = y; row < y + height; row++) {
+                image.getRGB(x, row, width, 1, canvasRow, 0, width);
+                fadePixels(canvasRow, 0, width, false);
+                image.setRGB(x, row, width, 1, canvasRow, 0, width);
+            }
+        }
+    }
+
+    /**
+     * Fades a run of ARGB pixels in place using the fade lookup tables.
+     * <p>
+     * Opaque pixels, and every pixel with premultiplied alpha, only need each
+     * component looked up. Other translucent pixels are blended with black
+     * exactly.
+     */
+    private void fadePixels(int[] pixels, int start, int length, boolean premultiplied) {
+        for (int i = start; i < start + length; i++) {
+            int pixel = pixels[i];
+            int alpha = pixel >>> 24;
+            if (alpha == 255 || premultiplied) {
+                pixels[i] = fadeAlphaTable[alpha] << 24
+                    | fadeColourTable[(pixel >> 16) & 0xFF] << 16
+                    | fadeColourTable[(pixel >> 8) & 0xFF] << 8
+                    | fadeColourTable[pixel & 0xFF];
+            } else {
+                int fadedAlpha = fadeAlphaTable[alpha];
+                if (fadedAlpha == 0) {
+                    continue;
+                }
+                // Each colour keeps the weight it had in the blend, relative to the new alpha
+                int weight = alpha * (255 - fadeTableAlpha);
+                int divisor = 255 * fadedAlpha;
+                int red = (((pixel >> 16) & 0xFF) * weight + divisor / 2) / divisor;
+                int green = (((pixel >> 8) & 0xFF) * weight + divisor / 2) / divisor;
+                int blue = ((pixel & 0xFF) * weight + divisor / 2) / divisor;
+                pixels[i] = fadedAlpha << 24 | red << 16 | green << 8 | blue;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the fade lookup tables for the given fade opacity, if they were
+     * not already built for it.
+     * <p>
+     * Drawing black over a component with an opacity of fadeAlpha scales its
+     * colour by (255 - fadeAlpha) / 255 and moves its alpha towards 255 by
+     * fadeAlpha / 255.
+     *
+     * @param fadeAlpha the opacity of the fade, from 0 to 255
+     */
+    private void updateFadeTables(int fadeAlpha) {
+        if (fadeAlpha == fadeTableAlpha) {
+            return;
+        }
+        for (int i = 0; i < 256; i++) {
+            fadeColourTable[i] = (i * (255 - fadeAlpha) + 127) / 255;
+            fadeAlphaTable[i] = i + ((255 - i) * fadeAlpha + 127) / 255;
+        }
+        fadeTableAlpha = fadeAlpha;
     }
 
     /**
@@ -110,15 +647,290 @@ public abstract class PixelWorld extends World {
      * canvas.
      * <p>
      * Render order is defined by the order of layers in the {@link Layer} enum.
+     * Within a layer, actors are rendered in the order they were added.
+     * <p>
+     * If parallel rendering is enabled, actors are drawn as described in
+     * {@link #setParallelRendering}, with the same result.
      *
      * @see Layer
      */
     public void renderPixelActors() {
-        for (List<PixelActor> layerActors : actorsByLayer.values()) {
-            for (PixelActor actor : layerActors) {
-                actor.render(canvas);
+        if (parallelRendering && renderPool.getParallelism() > 1 && isIntRaster(canvas.getAwtImage())) {
+            renderPixelActorsInTiles();
+            return;
+        }
+        renderPixelActors(imageCanvas);
+    }
+
+    /**
+     * Renders all PixelActors currently in this world by layer onto the given
+     * canvas instead of this world's canvas, one at a time, such as to render
+     * a frame off-screen onto a {@link RasterCanvas}.
+     *
+     * @param target the Canvas to render all actors onto
+     * @see #renderPixelActors()
+     */
+    public void renderPixelActors(Canvas target) {
+        for (Map.Entry<Layer, List<PixelActor>> entry : actorsByLayer.entrySet()) {
+            if (layerTombstones[entry.getKey().ordinal()] > 0) {
+                compactLayer(entry.getKey());
+            }
+            List<PixelActor> layerActors = entry.getValue();
+            for (int i = 0; i < layerActors.size(); i++) {
+                layerActors.get(i).render(target);
+            }
+        }
+    }
+
+    /**
+     * Sets whether this world renders its PixelActors in parallel.
+     * <p>
+     * When enabled, {@link #renderPixelActors} first gathers the transformed
+     * image, position and transparency of every actor on the act thread. It
+     * then splits the canvas into horizontal tiles and, on a pool of its own,
+     * copies each tile's rows of the canvas into a separate buffer, draws the
+     * tile's intersecting actors into that buffer in the same order as they
+     * would otherwise be rendered, and copies the rows back. No two threads
+     * ever draw into the same image, and each tile blends its actors exactly
+     * as rendering them one at a time would, so both modes draw the same
+     * frame. Actors that draw more than their image are rendered on the act
+     * thread in between, so that the layer order is preserved.
+     * <p>
+     * Parallel rendering has no effect on machines with a single processor,
+     * or if the canvas does not store its pixels as packed integers.
+     *
+     * @param parallelRendering true to render actors in parallel, false to render them one at a time
+     */
+    public void setParallelRendering(boolean parallelRendering) {
+        this.parallelRendering = parallelRendering;
+    }
+
+    /**
+     * Renders all PixelActors currently in this world by layer, drawing runs
+     * of actors that only draw their transformed images in parallel tiles.
+     */
+    private void renderPixelActorsInTiles() {
+        batchSize = 0;
+        for (Map.Entry<Layer, List<PixelActor>> entry : actorsByLayer.entrySet()) {
+            if (layerTombstones[entry.getKey().ordinal()] > 0) {
+                compactLayer(entry.getKey());
             }
+            List<PixelActor> layerActors = entry.getValue();
+            for (int i = 0; i < layerActors.size(); i++) {
+                PixelActor actor = layerActors.get(i);
+                if (!actor.isRenderedAsImage()) {
+                    // Draw everything before this actor first to keep the render order
+                    renderBatch();
+                    actor.render(imageCanvas);
+                    continue;
+                }
+                if (!actor.isVisible()) {
+                    continue;
+                }
+                // Build the transformed image here, since images are shared between actors and cannot be built concurrently
+                GreenfootImage image = actor.getTransformedImage();
+                if (image != null && actor.getTransparency() > 0) {
+                    addToBatch(image, actor.getRenderX(), actor.getRenderY(), actor.getTransparency());
+                }
+            }
+        }
+        renderBatch();
+    }
+
+    /**
+     * Adds an image to be drawn onto the canvas by the next call to
+     * {@link #renderBatch}, with the given transparency on top of the
+     * image's own.
+     */
+    private void addToBatch(GreenfootImage image, int x, int y, int transparency) {
+        if (batchSize == batchImages.length) {
+            batchImages = Arrays.copyOf(batchImages, batchSize * 2);
+            batchXs = Arrays.copyOf(batchXs, batchSize * 2);
+            batchYs = Arrays.copyOf(batchYs, batchSize * 2);
+            batchAlphas = Arrays.copyOf(batchAlphas, batchSize * 2);
         }
+        batchImages[batchSize] = image.getAwtImage();
+        batchXs[batchSize] = x;
+        batchYs[batchSize] = y;
+        // The same opacity an ImageCanvas draws the image with
+        batchAlphas[batchSize] = transparency / 255.0f * image.getTransparency() / 255.0f;
+        batchSize++;
+    }
+
+    /**
+     * Draws every image added to the batch onto the canvas in the order they
+     * were added, then empties the batch. Large batches are drawn in parallel
+     * tiles, and small batches are drawn on the act thread.
+     */
+    private void renderBatch() {
+        if (batchSize == 0) {
+            return;
+        }
+        int tileCount = Math.min(renderPool.getParallelism(), worldHeight / MIN_RENDER_TILE_HEIGHT);
+        if (batchSize < MIN_PARALLEL_BATCH_SIZE || tileCount < 2) {
+            Graphics2D graphics = canvas.getAwtImage().createGraphics();
+            drawBatch(graphics, 0, worldHeight, 0);
+            graphics.dispose();
+        } else {
+            if (tileImages.length != tileCount) {
+                createTileImages(tileCount);
+            }
+            renderPool.invoke(new TileRenderTask(0, tileCount, tileCount));
+        }
+        Arrays.fill(batchImages, 0, batchSize, null);
+        batchSize = 0;
+    }
+
+    /**
+     * Creates the buffers for each of the given number of tiles, with the
+     * same pixel format as the canvas so that pixels are blended the same way.
+     */
+    private void createTileImages(int tileCount) {
+        tileImages = new BufferedImage[tileCount];
+        int type = canvas.getAwtImage().getType();
+        for (int tile = 0; tile < tileCount; tile++) {
+            int top = worldHeight * tile / tileCount;
+            int bottom = worldHeight * (tile + 1) / tileCount;
+            tileImages[tile] = new BufferedImage(worldWidth, bottom - top, type);
+        }
+    }
+
+    /**
+     * Draws one horizontal tile of the canvas into its own buffer, then
+     * copies it back into the canvas.
+     * <p>
+     * Each tile only reads and writes its own rows of the canvas's pixel
+     * array, and only draws into its own buffer, so several tiles may be
+     * rendered at the same time.
+     *
+     * @param tile the index of the tile
+     * @param top the y coordinate of the first row of the tile
+     * @param bottom the y coordinate of the row after the last row of the tile
+     */
+    private void renderTile(int tile, int top, int bottom) {
+        BufferedImage tileImage = tileImages[tile];
+        copyRows(canvas.getAwtImage(), top, tileImage, 0, bottom - top);
+        Graphics2D graphics = tileImage.createGraphics();
+        drawBatch(graphics, top, bottom, top);
+        graphics.dispose();
+        copyRows(tileImage, 0, canvas.getAwtImage(), top, bottom - top);
+    }
+
+    /**
+     * Draws every image in the batch that overlaps a horizontal band of the
+     * canvas, in the order they were added.
+     *
+     * @param graphics the graphics to draw with
+     * @param top the y coordinate on the canvas of the first row of the band
+     * @param bottom the y coordinate on the canvas of the row after the last row of the band
+     * @param originY the y coordinate on the canvas of the top of the image being drawn into
+     */
+    private void drawBatch(Graphics2D graphics, int top, int bottom, int originY) {
+        float lastAlpha = 1.0f;
+        graphics.setComposite(AlphaComposite.SrcOver);
+        for (int i = 0; i < batchSize; i++) {
+            BufferedImage image = batchImages[i];
+            int y = batchYs[i];
+            if (y >= bottom || y + image.getHeight() <= top || batchAlphas[i] <= 0.0f) {
+                continue;
+            }
+            // Apply the opacity without modifying the shared image
+            if (batchAlphas[i] != lastAlpha) {
+                lastAlpha = batchAlphas[i];
+                graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, lastAlpha));
+            }
+            graphics.drawImage(image, batchXs[i], y - originY, null);
+        }
+    }
+
+    /**
+     * Copies whole rows of pixels between two images that store their pixels
+     * as packed integers in the same format.
+     */
+    private void copyRows(BufferedImage source, int sourceY, BufferedImage target, int targetY, int rows) {
+        int[] sourcePixels = ((DataBufferInt) source.getRaster().getDataBuffer()).getData();
+        int[] targetPixels = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        int sourceStride = ((SinglePixelPackedSampleModel) source.getRaster().getSampleModel()).getScanlineStride();
+        int targetStride = ((SinglePixelPackedSampleModel) target.getRaster().getSampleModel()).getScanlineStride();
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(sourcePixels, (sourceY + row) * sourceStride, targetPixels, (targetY + row) * targetStride, worldWidth);
+        }
+    }
+
+    /**
+     * Tests whether an image stores its pixels as ARGB integers, straight or
+     * premultiplied, that can be copied directly.
+     */
+    private static boolean isIntRaster(BufferedImage image) {
+        int type = image.getType();
+        WritableRaster raster = image.getRaster();
+        return (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_ARGB_PRE)
+            && raster.getDataBuffer() instanceof DataBufferInt
+            && raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+            && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0;
+    }
+
+    /**
+     * Creates a daemon worker thread for the pool tiles are rendered on.
+     */
+    private static ForkJoinWorkerThread createRenderThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Renders a range of the tiles the canvas is split into, splitting the
+     * range in half until each task renders a single tile.
+     */
+    @SuppressWarnings("serial") // Tasks are only ever run, never serialized
+    private class TileRenderTask extends RecursiveAction {
+        private final int firstTile;
+        private final int endTile;
+        private final int tileCount;
+
+        /**
+         * Creates a task rendering the tiles from firstTile up to but not
+         * including endTile, out of tileCount tiles covering the canvas.
+         */
+        private TileRenderTask(int firstTile, int endTile, int tileCount) {
+            this.firstTile = firstTile;
+            this.endTile = endTile;
+            this.tileCount = tileCount;
+        }
+
+        @Override
+        protected void compute() {
+            if (endTile - firstTile == 1) {
+                renderTile(firstTile, worldHeight * firstTile / tileCount, worldHeight * endTile / tileCount);
+                return;
+            }
+            int middleTile = (firstTile + endTile) / 2;
+            invokeAll(new TileRenderTask(firstTile, middleTile, tileCount), new TileRenderTask(middleTile, endTile, tileCount));
+        }
+    }
+
+    /**
+     * Removes all tombstones left behind by removed actors from the list of
+     * actors in the given layer, keeping the remaining actors in order.
+     *
+     * @param layer the layer to compact
+     */
+    private void compactLayer(Layer layer) {
+        List<PixelActor> layerActors = actorsByLayer.get(layer);
+        int size = layerActors.size();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            PixelActor actor = layerActors.get(i);
+            if (actor == null) {
+                continue;
+            }
+            layerActors.set(count, actor);
+            actor.getActorSlot().layerIndex = count;
+            count++;
+        }
+        layerActors.subList(count, size).clear();
+        layerTombstones[layer.ordinal()] = 0;
     }
 
     /**
@@ -149,25 +961,74 @@ public abstract class PixelWorld extends World {
      */
     @Override
     public void addObject(Actor object, int x, int y) {
-        // Add this object to the list for its class
+        // Like World.addObject, adding an object to the world it is already in does nothing
+        World oldWorld = object.getWorld();
+        if (oldWorld == this) {
+            return;
+        }
+        // Remove the object from its old world first, while its slot still holds its indices in that world
+        if (oldWorld != null) {
+            oldWorld.removeObject(object);
+        }
+
+        // Add this object to the list for its class, storing the class first if this is its first object
         List<Actor> list = actorMap.get(object.getClass());
         if (list == null) {
-            list = new ArrayList<Actor>();
-            actorMap.put(object.getClass(), list);
+            list = addObjectClass(object.getClass());
         }
         list.add(object);
+        if (object instanceof PixelActor) {
+            ((PixelActor) object).getActorSlot().classIndex = list.size() - 1;
+        }
 
-        // Add actors to the list for their layers
+        // Count this object as an instance of every type it belongs to
+        for (Class<?> type : getTypeHierarchy(object.getClass())) {
+            objectCounts.merge(type, 1, Integer::sum);
+        }
+
+        // Add actors to the list for their layers, and to the spatial index at their new location
         if (object instanceof PixelActor) {
             PixelActor actor = (PixelActor) object;
-            actorsByLayer.get(actor.getLayer()).add(actor);
+            List<PixelActor> layerActors = actorsByLayer.get(actor.getLayer());
+            layerActors.add(actor);
+            actor.getActorSlot().layerIndex = layerActors.size() - 1;
+            actor.setLocation((double) x, (double) y);
+            spatialIndex.get(actor.getClass()).add(actor);
         }
 
         super.addObject(object, x, y);
     }
 
+    /**
+     * Creates the storage for objects of a class that has not been added to
+     * this world before, adding it to every cached class bucket that covers it.
+     *
+     * @param cls the class of objects to store
+     * @return the new list to store objects of the given class in
+     */
+    private List<Actor> addObjectClass(Class<? extends Actor> cls) {
+        List<Actor> list = new ArrayList<Actor>();
+        actorMap.put(cls, list);
+        SpatialGrid grid = null;
+        if (PixelActor.class.isAssignableFrom(cls)) {
+            grid = new SpatialGrid(worldWidth, worldHeight, getSpatialCellSize(cls));
+            spatialIndex.put(cls, grid);
+        }
+        for (Map.Entry<Class<?>, ClassBucket> entry : classBuckets.entrySet()) {
+            if (entry.getKey() == null || entry.getKey().isAssignableFrom(cls)) {
+                entry.getValue().add(list, grid);
+            }
+        }
+        return list;
+    }
+
     /**
      * Removes an Actor from this world.
+     * <p>
+     * PixelActors are removed in constant time: the last object of the same
+     * class takes the place of the removed actor in the list for its class,
+     * and a tombstone takes its place in the list for its layer until the
+     * layer is compacted, so that render order is preserved.
      *
      * @param object the object to remove
      * @see World#removeObject
@@ -176,13 +1037,94 @@ public abstract class PixelWorld extends World {
     public void removeObject(Actor object) {
         super.removeObject(object);
 
-        // Remove this object from the list for its class
-        actorMap.get(object.getClass()).remove(object);
+        // Remove this object from the list for its class, doing nothing more if it was not in this world
+        List<Actor> list = actorMap.get(object.getClass());
+        if (list == null || !removeFromClassList(list, object)) {
+            return;
+        }
 
-        // Remove actors from the list for their layers
+        // Stop counting this object as an instance of every type it belongs to
+        for (Class<?> type : getTypeHierarchy(object.getClass())) {
+            objectCounts.merge(type, -1, Integer::sum);
+        }
+
+        // Remove actors from the list for their layers and from the spatial index
         if (object instanceof PixelActor) {
             PixelActor actor = (PixelActor) object;
-            actorsByLayer.get(actor.getLayer()).remove(actor);
+            ActorSlot slot = actor.getActorSlot();
+            List<PixelActor> layerActors = actorsByLayer.get(actor.getLayer());
+            layerActors.set(slot.layerIndex, null);
+            slot.layerIndex = -1;
+            // Compact the layer early if it has built up too many tombstones between renders
+            int tombstones = ++layerTombstones[actor.getLayer().ordinal()];
+            if (tombstones > 32 && tombstones > layerActors.size() / 2) {
+                compactLayer(actor.getLayer());
+            }
+            spatialIndex.get(actor.getClass()).remove(actor);
+            // The region this actor was last drawn to must be redrawn without it
+            if (slot.drawnImage != null) {
+                addDamagedRegion(slot.drawnX, slot.drawnY, slot.drawnImage.getWidth(), slot.drawnImage.getHeight());
+                slot.drawnImage = null;
+                slot.drawnTransparency = -1;
+            }
+        }
+    }
+
+    /**
+     * Removes an object from the list of objects of its class. PixelActors are
+     * swapped with the last object in the list using their stored index, while
+     * other actors are searched for.
+     *
+     * @param list the list of objects of the same class as the given object
+     * @param object the object to remove
+     * @return true if the object was found in the list and removed, false otherwise
+     */
+    private boolean removeFromClassList(List<Actor> list, Actor object) {
+        if (!(object instanceof PixelActor)) {
+            return list.remove(object);
+        }
+        ActorSlot slot = ((PixelActor) object).getActorSlot();
+        int index = slot.classIndex;
+        if (index < 0 || index >= list.size() || list.get(index) != object) {
+            return false;
+        }
+        int lastIndex = list.size() - 1;
+        Actor last = list.remove(lastIndex);
+        if (index != lastIndex) {
+            list.set(index, last);
+            ((PixelActor) last).getActorSlot().classIndex = index;
+        }
+        slot.classIndex = -1;
+        return true;
+    }
+
+    /**
+     * Gets the size of the cells of the spatial grid used to store objects of
+     * the given class in this world's spatial index.
+     * <p>
+     * Subclasses may override this method to match the cell size of a class to
+     * the radius its objects are most commonly looked up with, which by
+     * default is {@link #SPATIAL_CELL_SIZE}.
+     *
+     * @param cls the class of objects to be stored in the spatial grid
+     * @return the width and height of each cell of the grid, in canvas pixels
+     */
+    protected int getSpatialCellSize(Class<? extends Actor> cls) {
+        return SPATIAL_CELL_SIZE;
+    }
+
+    /**
+     * Updates the location of a PixelActor in this world's spatial index.
+     * <p>
+     * PixelActors call this method themselves whenever their location changes,
+     * so it should not be necessary to call it elsewhere.
+     *
+     * @param actor the actor whose location has changed
+     */
+    public void updateSpatialIndex(PixelActor actor) {
+        SpatialGrid grid = spatialIndex.get(actor.getClass());
+        if (grid != null) {
+            grid.update(actor);
         }
     }
 
@@ -199,20 +1141,104 @@ public abstract class PixelWorld extends World {
     @Override
     public <A> List<A> getObjects(Class<A> cls) {
         List result = new ArrayList();
-        if (cls == null) {
-            // Add all objects to result list
-            for (List<Actor> list : actorMap.values()) {
-                result.addAll(list);
-            }
-        } else {
-            // Add all objects of classes that are subclasses of or the same as the given class
-            for (Class<? extends Actor> keyCls : actorMap.keySet()) {
-                if (cls.isAssignableFrom(keyCls)) {
-                    result.addAll(actorMap.get(keyCls));
+        for (List<Actor> list : getClassBucket(cls).lists) {
+            result.addAll(list);
+        }
+        return result;
+    }
+
+    /**
+     * Gets a read-only view of all objects of a particular class in this world.
+     * <p>
+     * Unlike {@link #getObjects}, this method does not copy any objects into a
+     * new list. The returned list reflects objects being added to and removed
+     * from this world, and the same view is returned for every call with the
+     * same class. Objects of the given class should not be added or removed
+     * while iterating over the view.
+     * <p>
+     * The view should be iterated over rather than indexed, since getting an
+     * object by its index walks the lists of every class the view covers.
+     *
+     * @param cls the class of objects to look for, or {@code null} to find all objects
+     * @return an unmodifiable, live list of objects in this world that are instances of the given class
+     */
+    @SuppressWarnings("unchecked")
+    public <A> List<A> getObjectsView(Class<A> cls) {
+        // Every object in the bucket for a class is an instance of that class, or any object if the class is null
+        return (List<A>) getClassBucket(cls).view;
+    }
+
+    /**
+     * Gets the bucket of stored objects of every class covered by the given
+     * class, finding those classes the first time a class is looked up.
+     *
+     * @param cls the class of objects to look for, or {@code null} for all objects
+     * @return the class bucket for the given class
+     */
+    private ClassBucket getClassBucket(Class<?> cls) {
+        ClassBucket bucket = classBuckets.get(cls);
+        if (bucket == null) {
+            bucket = new ClassBucket();
+            for (Map.Entry<Class<? extends Actor>, List<Actor>> entry : actorMap.entrySet()) {
+                if (cls == null || cls.isAssignableFrom(entry.getKey())) {
+                    bucket.add(entry.getValue(), spatialIndex.get(entry.getKey()));
                 }
             }
+            classBuckets.put(cls, bucket);
+        }
+        return bucket;
+    }
+
+    /**
+     * Gets the number of objects of a particular class in this world.
+     * <p>
+     * This method takes constant time, making use of counts of objects of
+     * every class that are kept up to date as objects are added and removed.
+     * It is equivalent to (but much faster than) getting the size of the list
+     * returned by {@link #getObjects}.
+     *
+     * @param cls the class of objects to count, or {@code null} to count all objects
+     * @return the number of objects in this world that are instances of the given class
+     */
+    public int countObjects(Class<?> cls) {
+        Integer count = objectCounts.get(cls == null ? Actor.class : cls);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Gets the set of all classes and interfaces that objects of the given
+     * class are instances of, including the class itself.
+     * <p>
+     * The result is computed once for each class and stored for later calls.
+     *
+     * @param cls the class of objects to find the types of
+     * @return the set of every type that instances of the given class belong to
+     */
+    private Set<Class<?>> getTypeHierarchy(Class<?> cls) {
+        Set<Class<?>> hierarchy = typeHierarchies.get(cls);
+        if (hierarchy == null) {
+            hierarchy = new HashSet<Class<?>>();
+            addTypeHierarchy(cls, hierarchy);
+            typeHierarchies.put(cls, hierarchy);
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Adds the given type and all of its superclasses and superinterfaces to
+     * the given set.
+     *
+     * @param type the class or interface to add along with its supertypes
+     * @param hierarchy the set to add the types to
+     */
+    private static void addTypeHierarchy(Class<?> type, Set<Class<?>> hierarchy) {
+        if (type == null || !hierarchy.add(type)) {
+            return;
+        }
+        addTypeHierarchy(type.getSuperclass(), hierarchy);
+        for (Class<?> iface : type.getInterfaces()) {
+            addTypeHierarchy(iface, hierarchy);
         }
-        return result;
     }
 
     /**
@@ -221,6 +1247,9 @@ public abstract class PixelWorld extends World {
      * center of rotation and the given point is less than or equal to the
      * given radius.
      * <p>
+     * Only objects stored in the cells of this world's spatial index that
+     * overlap the circle are considered.
+     * <p>
      * Note: this method ignores objects that do not subclass from PixelActor!
      *
      * @param radius the radius of the circle, in canvas pixels
@@ -231,18 +1260,33 @@ public abstract class PixelWorld extends World {
      */
     public <A> List<A> getObjectsInRange(int radius, int x, int y, Class<A> cls) {
         List<A> result = new ArrayList<A>();
-        for (A obj : getObjects(cls)) {
-            if (!(obj instanceof PixelActor)) {
-                continue;
-            }
-            PixelActor actor = (PixelActor) obj;
-            if (actor.getDistanceTo(x, y) <= radius) {
-                result.add(obj);
-            }
-        }
+        addObjectsInRange(radius, x, y, cls, result);
         return result;
     }
 
+    /**
+     * Adds all objects of the specified class within a specified radius around
+     * a point to the given list, in the same way as {@link #getObjectsInRange}.
+     * <p>
+     * This allows callers that look for objects very frequently to reuse the
+     * same list rather than allocating a new one each time.
+     *
+     * @param radius the radius of the circle, in canvas pixels
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param cls the class of objects to look for, or {@code null} for all types of objects
+     * @param result the list to add all objects of the given class within the given range to
+     */
+    @SuppressWarnings("unchecked")
+    public <A> void addObjectsInRange(double radius, double x, double y, Class<A> cls, List<? super A> result) {
+        // Every grid in the bucket for a class only holds instances of that class, or any object if the class is null,
+        // so each actor added to the result is an A
+        List<? super PixelActor> actorResult = (List<? super PixelActor>) result;
+        for (SpatialGrid grid : getClassBucket(cls).grids) {
+            grid.addActorsInRange(x, y, radius, actorResult);
+        }
+    }
+
     /**
      * Gets the width of the downscaled world.
      * <p>
@@ -316,4 +1360,82 @@ public abstract class PixelWorld extends World {
         if (fadeSpeed <= 0) return false;
         return fadePercentage == 1.0;
     }
+
+    /**
+     * The stored objects and spatial grids of every concrete class of objects
+     * covered by a class, so that looking up objects of that class does not
+     * need to search through every stored class each time.
+     */
+    private static class ClassBucket {
+        // The list of objects of each covered class
+        private final List<List<Actor>> lists = new ArrayList<List<Actor>>();
+        // The spatial grid of each covered subclass of PixelActor
+        private final List<SpatialGrid> grids = new ArrayList<SpatialGrid>();
+        // A read-only view of all objects of every covered class
+        private final List<Actor> view = new AbstractList<Actor>() {
+            @Override
+            public Actor get(int index) {
+                if (index >= 0) {
+                    for (List<Actor> list : lists) {
+                        if (index < list.size()) {
+                            return list.get(index);
+                        }
+                        index -= list.size();
+                    }
+                }
+                throw new IndexOutOfBoundsException("Index out of range for objects view");
+            }
+
+            @Override
+            public Iterator<Actor> iterator() {
+                // Walk each list in turn, rather than finding every index from the start as get() does
+                return new Iterator<Actor>() {
+                    private int listIndex = 0;
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (listIndex < lists.size()) {
+                            if (index < lists.get(listIndex).size()) {
+                                return true;
+                            }
+                            listIndex++;
+                            index = 0;
+                        }
+                        return false;
+                    }
+
+                    @Override
+                    public Actor next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return lists.get(listIndex).get(index++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (List<Actor> list : lists) {
+                    size += list.size();
+                }
+                return size;
+            }
+        };
+
+        /**
+         * Adds the storage of a covered class to this bucket.
+         *
+         * @param list the list of objects of the covered class
+         * @param grid the spatial grid of the covered class, or {@code null} if it does not subclass PixelActor
+         */
+        public void add(List<Actor> list, SpatialGrid grid) {
+            lists.add(list);
+            if (grid != null) {
+                grids.add(grid);
+            }
+        }
+    }
 }
@@ -0,0 +1,242 @@
+import java.util.List;
+import java.util.ArrayList;
+
+/**
+ * A uniform grid of square cells storing items at arbitrary points, for
+ * efficiently finding the items whose points are near a location.
+ * <p>
+ * Unlike {@link SpatialGrid}, which follows actors as they move, a PointGrid is
+ * meant to be cleared and refilled whenever its points need to be recomputed,
+ * such as once per act. The entries used to store points are kept and reused
+ * between refills, so refilling a grid does not allocate any new objects once
+ * it has held as many points before.
+ * <p>
+ * Points outside the area covered by the grid are stored in the nearest cell
+ * along its edge, and queries are clamped in the same way.
+ * <p>
+ * The item nearest to a location can also be found with
+ * {@link #getNearestItem}. The first lookup after the grid changes finds, for
+ * every cell, the few points that could be nearest to somewhere in it, so
+ * that each lookup after that only compares those points.
+ *
+ * @version April 2024
+ */
+public class PointGrid<T> {
+    /**
+     * A point stored in a PointGrid along with its item.
+     */
+    private static class Entry<T> {
+        private double x;
+        private double y;
+        private T item;
+    }
+
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    // All cells in row-major order, each containing the entries whose points lie within it
+    private final List<List<Entry<T>>> cells;
+    // Every entry that has been allocated, of which the first entryCount are in use
+    private final List<Entry<T>> entries;
+    private int entryCount;
+    // For each cell, the entries that could be the nearest to some location within it, see findNearestCandidates()
+    private final List<List<Entry<T>>> nearestCandidates;
+    private boolean nearestCandidatesValid;
+
+    /**
+     * Creates a new, empty PointGrid covering an area of the given dimensions.
+     *
+     * @param width the width of the area to cover, in canvas pixels
+     * @param height the height of the area to cover, in canvas pixels
+     * @param cellSize the width and height of each cell, in canvas pixels
+     */
+    public PointGrid(int width, int height, int cellSize) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("PointGrid cell size must be positive (got " + cellSize + ")");
+        }
+        this.cellSize = cellSize;
+        columns = Math.max((width + cellSize - 1) / cellSize, 1);
+        rows = Math.max((height + cellSize - 1) / cellSize, 1);
+        cells = new ArrayList<List<Entry<T>>>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<Entry<T>>());
+        }
+        entries = new ArrayList<Entry<T>>();
+        entryCount = 0;
+        nearestCandidates = new ArrayList<List<Entry<T>>>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            nearestCandidates.add(new ArrayList<Entry<T>>());
+        }
+        nearestCandidatesValid = false;
+    }
+
+    /**
+     * Removes all points from this grid.
+     */
+    public void clear() {
+        if (entryCount == 0) {
+            return;
+        }
+        for (List<Entry<T>> cell : cells) {
+            cell.clear();
+        }
+        for (List<Entry<T>> candidates : nearestCandidates) {
+            candidates.clear();
+        }
+        nearestCandidatesValid = false;
+        for (int i = 0; i < entryCount; i++) {
+            entries.get(i).item = null;
+        }
+        entryCount = 0;
+    }
+
+    /**
+     * Adds an item at the given point.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param item the item to store at the point
+     */
+    public void add(double x, double y, T item) {
+        if (entryCount == entries.size()) {
+            entries.add(new Entry<T>());
+        }
+        Entry<T> entry = entries.get(entryCount++);
+        entry.x = x;
+        entry.y = y;
+        entry.item = item;
+        cells.get(getRow(y) * columns + getColumn(x)).add(entry);
+        nearestCandidatesValid = false;
+    }
+
+    /**
+     * Adds the items of all points in this grid within a specified radius
+     * around a location to the given list. A point is within range if its
+     * distance to the location is less than or equal to the given radius.
+     *
+     * @param x the x coordinate of the location
+     * @param y the y coordinate of the location
+     * @param radius the radius of the circle, in canvas pixels
+     * @param result the list to add the items of all points within range to
+     */
+    public void addItemsInRange(double x, double y, double radius, List<? super T> result) {
+        if (entryCount == 0) {
+            return;
+        }
+        int minColumn = getColumn(x - radius);
+        int maxColumn = getColumn(x + radius);
+        int minRow = getRow(y - radius);
+        int maxRow = getRow(y + radius);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (Entry<T> entry : cells.get(row * columns + column)) {
+                    if (Math.hypot(entry.x - x, entry.y - y) <= radius) {
+                        result.add(entry.item);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the item whose point is nearest to a location. If several points
+     * are equally near, the item that was added first is returned.
+     * <p>
+     * Locations within the area covered by this grid only compare the points
+     * that could be nearest to somewhere in their cell, while locations
+     * outside it compare every point.
+     *
+     * @param x the x coordinate of the location
+     * @param y the y coordinate of the location
+     * @return the item of the nearest point to the location, or null if this grid is empty
+     */
+    public T getNearestItem(double x, double y) {
+        if (entryCount == 0) {
+            return null;
+        }
+        List<Entry<T>> candidates;
+        if (x >= 0 && x < columns * cellSize && y >= 0 && y < rows * cellSize) {
+            if (!nearestCandidatesValid) {
+                findNearestCandidates();
+            }
+            candidates = nearestCandidates.get(getRow(y) * columns + getColumn(x));
+        } else {
+            candidates = entries.subList(0, entryCount);
+        }
+        Entry<T> nearest = null;
+        double minDistSq = 0.0;
+        for (Entry<T> entry : candidates) {
+            double distSq = (entry.x - x) * (entry.x - x) + (entry.y - y) * (entry.y - y);
+            if (nearest == null || distSq < minDistSq) {
+                minDistSq = distSq;
+                nearest = entry;
+            }
+        }
+        return nearest.item;
+    }
+
+    /**
+     * Finds the entries that could be nearest to some location within each
+     * cell. An entry can only be nearest if its closest distance to the cell
+     * is no more than the furthest distance to the cell of some other entry,
+     * so every other entry is left out. Candidates are kept in the order their
+     * entries were added, so ties are broken the same way as comparing every
+     * entry.
+     */
+    private void findNearestCandidates() {
+        for (int row = 0; row < rows; row++) {
+            double top = row * cellSize;
+            double bottom = top + cellSize;
+            for (int column = 0; column < columns; column++) {
+                double left = column * cellSize;
+                double right = left + cellSize;
+                // The furthest any location in this cell can be from its nearest entry
+                double boundSq = Double.MAX_VALUE;
+                for (int i = 0; i < entryCount; i++) {
+                    Entry<T> entry = entries.get(i);
+                    double dx = Math.max(Math.abs(entry.x - left), Math.abs(entry.x - right));
+                    double dy = Math.max(Math.abs(entry.y - top), Math.abs(entry.y - bottom));
+                    boundSq = Math.min(boundSq, dx * dx + dy * dy);
+                }
+                List<Entry<T>> candidates = nearestCandidates.get(row * columns + column);
+                candidates.clear();
+                for (int i = 0; i < entryCount; i++) {
+                    Entry<T> entry = entries.get(i);
+                    double dx = Math.max(Math.max(left - entry.x, entry.x - right), 0.0);
+                    double dy = Math.max(Math.max(top - entry.y, entry.y - bottom), 0.0);
+                    if (dx * dx + dy * dy <= boundSq) {
+                        candidates.add(entry);
+                    }
+                }
+            }
+        }
+        nearestCandidatesValid = true;
+    }
+
+    /**
+     * Gets the number of points currently stored in this grid.
+     *
+     * @return the number of points in this grid
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Gets the column of cells containing the given x coordinate, clamped to
+     * the edges of this grid.
+     */
+    private int getColumn(double x) {
+        int column = (int) Math.floor(x / cellSize);
+        return Math.max(Math.min(column, columns - 1), 0);
+    }
+
+    /**
+     * Gets the row of cells containing the given y coordinate, clamped to the
+     * edges of this grid.
+     */
+    private int getRow(double y) {
+        int row = (int) Math.floor(y / cellSize);
+        return Math.max(Math.min(row, rows - 1), 0);
+    }
+}
@@ -0,0 +1,256 @@
+import greenfoot.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * A Canvas that stores its pixels in a plain array of ARGB integers, without
+ * needing a display or a Greenfoot world.
+ * <p>
+ * Pixels are stored row by row as non-premultiplied ARGB values, the same
+ * format as {@link BufferedImage#getRGB}. Every drawing operation blends over
+ * the existing pixels using the same source-over rule as Java2D, so a frame
+ * rendered onto a RasterCanvas matches the same frame rendered onto a
+ * PixelWorld's canvas image up to rounding, and can be used to benchmark or
+ * compare rendering off-screen.
+ * <p>
+ * Images drawn onto a RasterCanvas are only read through their pixel data.
+ *
+ * @version April 2024
+ */
+public class RasterCanvas implements Canvas {
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    // Reused to hold the pixels of images that cannot be read directly, see drawImage()
+    private int[] imagePixels;
+
+    /**
+     * Creates a new, fully transparent RasterCanvas of the given dimensions.
+     *
+     * @param width the width of the canvas, in canvas pixels
+     * @param height the height of the canvas, in canvas pixels
+     */
+    public RasterCanvas(int width, int height) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("RasterCanvas dimensions must be positive (got " + width + "x" + height + ")");
+        }
+        this.width = width;
+        this.height = height;
+        pixels = new int[width * height];
+        imagePixels = new int[0];
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the array of pixels of this canvas, which may be read or modified
+     * directly.
+     *
+     * @return the ARGB pixels of this canvas, row by row
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Gets the colour of one pixel of this canvas.
+     *
+     * @param x the x coordinate of the pixel
+     * @param y the y coordinate of the pixel
+     * @return the ARGB value of the pixel
+     */
+    public int getPixel(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    /**
+     * Makes every pixel of this canvas fully transparent.
+     */
+    public void clear() {
+        Arrays.fill(pixels, 0);
+    }
+
+    @Override
+    public void drawImage(GreenfootImage image, int x, int y, int transparency) {
+        int imageWidth = image.getWidth();
+        int imageHeight = image.getHeight();
+        int stride = imageWidth;
+        int[] source;
+        BufferedImage awtImage = image.getAwtImage();
+        WritableRaster raster = awtImage.getRaster();
+        if (awtImage.getType() == BufferedImage.TYPE_INT_ARGB
+            && raster.getDataBuffer() instanceof DataBufferInt
+            && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+            // Read the image's pixels in place
+            source = ((DataBufferInt) raster.getDataBuffer()).getData();
+            stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        } else {
+            // Convert the image's pixels through its colour model
+            if (imagePixels.length < imageWidth * imageHeight) {
+                imagePixels = new int[imageWidth * imageHeight];
+            }
+            awtImage.getRGB(0, 0, imageWidth, imageHeight, imagePixels, 0, imageWidth);
+            source = imagePixels;
+        }
+        drawPixels(source, 0, stride, imageWidth, imageHeight, x, y, transparency * image.getTransparency() / 255);
+    }
+
+    /**
+     * Draws another RasterCanvas onto this canvas, blending it over the
+     * existing pixels with the given transparency.
+     *
+     * @param canvas the canvas to draw
+     * @param x the x coordinate of the left edge of the drawn canvas
+     * @param y the y coordinate of the top edge of the drawn canvas
+     * @param transparency the transparency to draw the canvas with, from 0 to 255
+     */
+    public void drawCanvas(RasterCanvas canvas, int x, int y, int transparency) {
+        drawPixels(canvas.pixels, 0, canvas.width, canvas.width, canvas.height, x, y, transparency);
+    }
+
+    /**
+     * Draws a rectangular region of another RasterCanvas onto this canvas,
+     * blending it over the existing pixels.
+     *
+     * @param canvas the canvas to draw part of
+     * @param sourceX the x coordinate of the left edge of the region within the drawn canvas
+     * @param sourceY the y coordinate of the top edge of the region within the drawn canvas
+     * @param regionWidth the width of the region, which must lie within the drawn canvas
+     * @param regionHeight the height of the region, which must lie within the drawn canvas
+     * @param x the x coordinate on this canvas of the left edge of the region
+     * @param y the y coordinate on this canvas of the top edge of the region
+     */
+    public void drawCanvasRegion(RasterCanvas canvas, int sourceX, int sourceY, int regionWidth, int regionHeight, int x, int y) {
+        drawPixels(canvas.pixels, sourceY * canvas.width + sourceX, canvas.width, regionWidth, regionHeight, x, y, 255);
+    }
+
+    /**
+     * Creates a new GreenfootImage with the same pixels as this canvas.
+     *
+     * @return a new GreenfootImage of the same size as this canvas, containing a copy of its pixels
+     */
+    public GreenfootImage toImage() {
+        GreenfootImage image = new GreenfootImage(width, height);
+        image.getAwtImage().setRGB(0, 0, width, height, pixels, 0, width);
+        return image;
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height, Color color) {
+        int left = Math.max(x, 0);
+        int top = Math.max(y, 0);
+        int right = Math.min(x + width, this.width);
+        int bottom = Math.min(y + height, this.height);
+        int argb = toArgb(color);
+        for (int row = top; row < bottom; row++) {
+            for (int column = left; column < right; column++) {
+                blend(row * this.width + column, argb, color.getAlpha());
+            }
+        }
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2, Color color) {
+        int argb = toArgb(color);
+        int alpha = color.getAlpha();
+        // Bresenham's line algorithm, stepping one pixel at a time along the longer axis
+        int dx = Math.abs(x2 - x1);
+        int dy = -Math.abs(y2 - y1);
+        int stepX = x1 < x2 ? 1 : -1;
+        int stepY = y1 < y2 ? 1 : -1;
+        int error = dx + dy;
+        while (true) {
+            if (x1 >= 0 && x1 < width && y1 >= 0 && y1 < height) {
+                blend(y1 * width + x1, argb, alpha);
+            }
+            if (x1 == x2 && y1 == y2) {
+                break;
+            }
+            int doubledError = error * 2;
+            if (doubledError >= dy) {
+                error += dy;
+                x1 += stepX;
+            }
+            if (doubledError <= dx) {
+                error += dx;
+                y1 += stepY;
+            }
+        }
+    }
+
+    /**
+     * Blends a rectangle of ARGB pixels from an array over this canvas, with
+     * the given transparency on top of each pixel's own alpha.
+     */
+    private void drawPixels(int[] source, int offset, int stride, int sourceWidth, int sourceHeight, int x, int y, int transparency) {
+        if (transparency <= 0) {
+            return;
+        }
+        int left = Math.max(x, 0);
+        int top = Math.max(y, 0);
+        int right = Math.min(x + sourceWidth, width);
+        int bottom = Math.min(y + sourceHeight, height);
+        for (int row = top; row < bottom; row++) {
+            int sourceIndex = offset + (row - y) * stride + (left - x);
+            int targetIndex = row * width + left;
+            for (int column = left; column < right; column++) {
+                int pixel = source[sourceIndex++];
+                int alpha = pixel >>> 24;
+                if (transparency != 255) {
+                    alpha = (alpha * transparency + 127) / 255;
+                }
+                blend(targetIndex++, pixel, alpha);
+            }
+        }
+    }
+
+    /**
+     * Blends a colour with the given alpha over one pixel of this canvas.
+     *
+     * @param index the index of the pixel in the array of pixels
+     * @param argb the colour to blend, whose own alpha is ignored
+     * @param alpha the alpha to blend the colour with, from 0 to 255
+     */
+    private void blend(int index, int argb, int alpha) {
+        if (alpha == 0) {
+            return;
+        }
+        if (alpha == 255) {
+            pixels[index] = argb | 0xFF000000;
+            return;
+        }
+        int target = pixels[index];
+        int targetAlpha = target >>> 24;
+        // The weight of the target's colour is what shows through of its own alpha
+        int targetWeight = targetAlpha * (255 - alpha);
+        int sourceWeight = alpha * 255;
+        int blendedAlpha = alpha + (targetWeight + 127) / 255;
+        if (blendedAlpha == 0) {
+            pixels[index] = 0;
+            return;
+        }
+        int divisor = sourceWeight + targetWeight;
+        int red = (((argb >> 16) & 0xFF) * sourceWeight + ((target >> 16) & 0xFF) * targetWeight + divisor / 2) / divisor;
+        int green = (((argb >> 8) & 0xFF) * sourceWeight + ((target >> 8) & 0xFF) * targetWeight + divisor / 2) / divisor;
+        int blue = ((argb & 0xFF) * sourceWeight + (target & 0xFF) * targetWeight + divisor / 2) / divisor;
+        pixels[index] = blendedAlpha << 24 | red << 16 | green << 8 | blue;
+    }
+
+    /**
+     * Converts a Greenfoot colour to an ARGB value.
+     */
+    private static int toArgb(Color color) {
+        return color.getAlpha() << 24 | color.getRed() << 16 | color.getGreen() << 8 | color.getBlue();
+    }
+}
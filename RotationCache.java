@@ -0,0 +1,92 @@
+import greenfoot.*;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A cache of rotated sprites shared by all PixelActors, so that actors showing
+ * the same image at the same angle reuse one rotated image instead of each
+ * creating their own every time they rotate.
+ * <p>
+ * Rotated images are stored by the image they were created from (compared by
+ * identity, as GreenfootImage does not override equals), whether that image was
+ * mirrored in either axis, and their rotation rounded down to a whole degree.
+ * Entries are held weakly by their source image, so the rotations of images no
+ * longer used by any actor are discarded along with them.
+ * <p>
+ * Since cached images are shared, neither the source images nor the rotated
+ * images may be modified once they are in the cache.
+ *
+ * @version April 2024
+ */
+public class RotationCache {
+    // For each source image, an array of rotated images for each combination of mirror flags, indexed by angle
+    private static final Map<GreenfootImage, GreenfootImage[][]> cache = new WeakHashMap<GreenfootImage, GreenfootImage[][]>();
+
+    private RotationCache() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Gets a cached rotation of an image.
+     *
+     * @param source the image the rotated image was created from, before any mirroring
+     * @param angle the angle of the rotation in whole degrees, from 0 to 359
+     * @param mirrorX whether the source image was mirrored horizontally before rotating
+     * @param mirrorY whether the source image was mirrored vertically before rotating
+     * @return the cached rotated image, or null if it has not been cached
+     */
+    public static GreenfootImage get(GreenfootImage source, int angle, boolean mirrorX, boolean mirrorY) {
+        GreenfootImage[][] rotations = cache.get(source);
+        if (rotations == null) {
+            return null;
+        }
+        GreenfootImage[] angles = rotations[getMirrorIndex(mirrorX, mirrorY)];
+        return angles == null ? null : angles[angle];
+    }
+
+    /**
+     * Stores a rotation of an image in the cache.
+     *
+     * @param source the image the rotated image was created from, before any mirroring
+     * @param angle the angle of the rotation in whole degrees, from 0 to 359
+     * @param mirrorX whether the source image was mirrored horizontally before rotating
+     * @param mirrorY whether the source image was mirrored vertically before rotating
+     * @param rotatedImage the rotated image to store, which must not be modified afterwards
+     */
+    public static void put(GreenfootImage source, int angle, boolean mirrorX, boolean mirrorY, GreenfootImage rotatedImage) {
+        GreenfootImage[][] rotations = cache.get(source);
+        if (rotations == null) {
+            rotations = new GreenfootImage[4][];
+            cache.put(source, rotations);
+        }
+        int mirrorIndex = getMirrorIndex(mirrorX, mirrorY);
+        if (rotations[mirrorIndex] == null) {
+            rotations[mirrorIndex] = new GreenfootImage[360];
+        }
+        rotations[mirrorIndex][angle] = rotatedImage;
+    }
+
+    /**
+     * Removes every rotation of an image from the cache, such as after the
+     * image was modified by the only actor using it.
+     *
+     * @param source the image the rotated images were created from
+     */
+    public static void remove(GreenfootImage source) {
+        cache.remove(source);
+    }
+
+    /**
+     * Removes all rotated images from the cache.
+     */
+    public static void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Gets the index of the array of rotations for a combination of mirror flags.
+     */
+    private static int getMirrorIndex(boolean mirrorX, boolean mirrorY) {
+        return (mirrorX ? 1 : 0) + (mirrorY ? 2 : 0);
+    }
+}
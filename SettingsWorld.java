@@ -108,14 +108,8 @@ public abstract class SettingsWorld extends PixelWorld {
      * Updates the display image of this world.
      */
     private void render() {
-        GreenfootImage canvas = getCanvas();
-        // Draw the background
-        canvas.drawImage(background, 0, 0);
-        // Draw actors
-        renderPixelActors();
-
-        // Display new canvas image
-        updateImage();
+        // Draw the background and actors, only redrawing the parts of the screen that have changed
+        renderIncrementally(background, null);
     }
 
     /**
@@ -3,11 +3,21 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.Map;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Collections;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 /**
  * The world were the magic happens...
+ * <p>
+ * Pressing R starts or stops recording the simulation to an animated GIF in
+ * the recordings directory, or to a sequence of PNG files if shift is held.
  *
  * @author Martin Baldwin
  * @author Brandon Law
@@ -20,6 +30,16 @@ public class SimulationWorld extends PixelWorld {
     private static final GreenfootImage foreground = new GreenfootImage("foreground.png");
     private static final GreenfootSound ambienceSound = new GreenfootSound("ambience.wav");
 
+    /** The transparency of the waves drawn over the actors in this world, from 0 to 255. */
+    private static final int WAVE_OVERLAY_TRANSPARENCY = 100;
+
+    /** The directory recordings of the simulation are written to, see {@link #toggleRecording}. */
+    public static final String RECORDING_DIRECTORY = "recordings";
+    /** The number of acts a message about a finished recording is shown for. */
+    public static final int RECORDING_MESSAGE_ACTS = 180;
+    // The background of the recording indicator and messages about finished recordings
+    private static final Color RECORDING_LABEL_COLOR = new Color(228, 228, 228, 200);
+
     /** The y coordinate of the surface of the water, in canvas pixels, relative to the top of this world. */
     public static final int SEA_SURFACE_Y = 37;
     /** The y coordinate of the sea floor, in canvas pixels, relative to the top of this world. */
@@ -29,6 +49,20 @@ public class SimulationWorld extends PixelWorld {
     private List<Set<FishRecord>> discoveredFishesByTier;
     // For each type of fish feature, a list of Fish currently in this world with that feature
     private Map<FishFeature, List<Fish>> fishesByFeature;
+    // Fish with the ANGLER_SOCK feature, indexed by the position of their sock at the start of the current act
+    private PointGrid<Fish> sockIndex;
+    // Hooks in this world that are not occupied by a fish, indexed by their position when the index was last built, see indexHooks()
+    private PointGrid<Hook> hookIndex;
+    // Whether the hook index is up to date with the hooks in this world this act
+    private boolean hooksIndexed;
+    // Kill volumes registered by predators during this act, to be resolved once every actor has acted
+    private List<KillVolume> killVolumes;
+    // Reused while resolving kill volumes to hold the fish and eggs within each volume
+    private List<Actor> killVolumeVictims;
+    // The greatest catch reach of any type of fish added to this world, see getMaxCatchReach()
+    private double maxCatchReach;
+    // The number of fish in this world that have not bitten a hook, for each class of fish and its superclasses
+    private Map<Class<?>, Integer> unhookedFishCounts;
 
     private Fisher leftFisher;
     private Fisher rightFisher;
@@ -42,6 +76,47 @@ public class SimulationWorld extends PixelWorld {
 
     // GifImage for waves
     private GifPixelActor waves = new GifPixelActor(new GifImage("wavesanim.gif"), Layer.FOREGROUND);
+    // For each frame of the waves animation, the images to draw under and over all actors, see getWaveLayers()
+    private Map<GreenfootImage, WaveLayers> waveLayersByFrame = new IdentityHashMap<GreenfootImage, WaveLayers>();
+
+    // Records every frame displayed while recording, or null if there is no recording in progress
+    private FrameRecorder recorder;
+    // Every recording started in this world, and those that have not yet finished being written
+    private List<FrameRecorder> recordings;
+    private List<FrameRecorder> unfinishedRecordings;
+    // Whether the record key was held down during the last act
+    private boolean recordKeyPressed;
+    // Drawn over the corner of the display image, but not the canvas, while recording or after a recording is written
+    // Null if there is nothing to show
+    private GreenfootImage recordingLabel;
+    // The number of acts left to show a message about a finished recording for, or -1 while showing that this world is recording
+    private int recordingLabelActs;
+
+    /**
+     * The static parts of this world's display image for one frame of the
+     * waves animation, composited ahead of time.
+     */
+    private static class WaveLayers {
+        // The background with the waves drawn opaquely on top
+        private GreenfootImage underlay;
+        // The waves drawn translucently, with the foreground on top
+        private GreenfootImage overlay;
+    }
+
+    /**
+     * An invisible actor that acts after every PixelActor in this world, to
+     * resolve the kill volumes registered during the act.
+     */
+    private class KillVolumeResolver extends Actor {
+        public KillVolumeResolver() {
+            setImage((GreenfootImage) null);
+        }
+
+        @Override
+        public void act() {
+            resolveKillVolumes();
+        }
+    }
 
     /**
      * Constructs a new SimulationWorld with the given UserSettings.
@@ -50,6 +125,7 @@ public class SimulationWorld extends PixelWorld {
      */
     public SimulationWorld(UserSettings userSettings) {
         super(250, 160);
+        setParallelRendering(true);
         this.userSettings = userSettings;
 
         // Initialize fish record keeping structures
@@ -62,6 +138,17 @@ public class SimulationWorld extends PixelWorld {
         for (FishFeature feature : FishFeature.values()) {
             fishesByFeature.put(feature, new ArrayList<Fish>());
         }
+        unhookedFishCounts = new HashMap<Class<?>, Integer>();
+        sockIndex = new PointGrid<Fish>(getWidth(), getHeight(), Fish.SOCK_REPEL_RADIUS);
+        hookIndex = new PointGrid<Hook>(getWidth(), getHeight(), FishFeature.BIG_EYE_RADIUS);
+        hooksIndexed = false;
+        killVolumes = new ArrayList<KillVolume>();
+        killVolumeVictims = new ArrayList<Actor>();
+        // Objects of classes not given an act order act last, so kills are resolved in the act they were registered
+        setActOrder(PixelActor.class);
+        addObject(new KillVolumeResolver(), 0, 0);
+        recordings = new ArrayList<FrameRecorder>();
+        unfinishedRecordings = new ArrayList<FrameRecorder>();
 
         leftFisher = new LeftFisher();
         rightFisher = new RightFisher();
@@ -111,20 +198,32 @@ public class SimulationWorld extends PixelWorld {
     public void act() {
         render();
         Timer.incrementAct();
+        indexSocks();
+        // Hooks have moved since the last act, so index them again the first time they are looked up
+        hooksIndexed = false;
 
         // If there are no more fish or eggs in the world, end the simulation
-        if (getObjects(Fish.class).size() + getObjects(Egg.class).size() == 0) {
+        if (countObjects(Fish.class) + countObjects(Egg.class) == 0) {
             triggerFadeOut(0.004);
             endState = EndState.EXTINCTION;
         }
 
         // If there are way too many Leviathans in the ocean
-        if (getObjects(Leviathan.class).size() > 35) {
+        if (countObjects(Leviathan.class) > 35) {
             fishEnd(2);
         }
 
+        boolean newRecordKeyPressed = Greenfoot.isKeyDown("r");
+        if (newRecordKeyPressed && !recordKeyPressed) {
+            toggleRecording();
+        }
+        recordKeyPressed = newRecordKeyPressed;
+        updateRecordings();
+
         if (isFadeOutComplete()) {
             ambienceSound.stop();
+            // Frames already captured finish being written in the background
+            stopRecording();
             Greenfoot.setWorld(new EndWorld(this, endState));
         }
     }
@@ -134,22 +233,187 @@ public class SimulationWorld extends PixelWorld {
      */
     private void render() {
         GreenfootImage canvas = getCanvas();
-        // Draw the background
-        canvas.drawImage(background, 0, 0);
-
         waves.updateImage();
-        waves.setTransparency(255);
-        waves.render(canvas);
+        WaveLayers waveLayers = getWaveLayers(waves.getCurrentFrame());
 
-        renderPixelActors();
+        // Draw the background and opaque waves
+        canvas.drawImage(waveLayers.underlay, 0, 0);
 
-        waves.setTransparency(100);
-        waves.render(canvas);
+        renderPixelActors();
 
-        canvas.drawImage(foreground, 0, 0);
+        // Draw the translucent waves and foreground
+        canvas.drawImage(waveLayers.overlay, 0, 0);
 
         // Display new canvas image
         updateImage();
+
+        if (recorder != null) {
+            recorder.capture(canvas);
+        }
+        // Only shown on the display image, so that it is never recorded
+        if (recordingLabel != null) {
+            drawOverlay(recordingLabel, 2, 2);
+        }
+    }
+
+    /**
+     * Starts recording every frame this world displays to files, stopping
+     * any previous recording first.
+     * <p>
+     * Frames are encoded in the background, and dropped rather than slowing
+     * down the simulation if they cannot be encoded quickly enough. Recording
+     * stops when the simulation ends or {@link #stopRecording} is called.
+     * Once every frame has been written, a message with the name of the
+     * recording, or that it failed, is briefly shown in the corner of this
+     * world.
+     *
+     * @param path the directory to write PNG files to, or the GIF file to write
+     * @param format the type of files to write
+     */
+    public void startRecording(Path path, FrameRecorder.Format format) {
+        stopRecording();
+        recorder = new FrameRecorder(path, format, getCanvas().getWidth(), getCanvas().getHeight());
+        recordings.add(recorder);
+        unfinishedRecordings.add(recorder);
+        recordingLabel = Text.createStringImage("REC", RECORDING_LABEL_COLOR);
+        recordingLabelActs = -1;
+    }
+
+    /**
+     * Stops recording frames, if this world is recording. Frames already
+     * captured finish being written in the background, without waiting for
+     * them.
+     */
+    public void stopRecording() {
+        if (recorder == null) {
+            return;
+        }
+        recorder.close();
+        recorder = null;
+        recordingLabel = null;
+    }
+
+    /**
+     * Tests whether this world is currently capturing frames.
+     *
+     * @return true if a recording has been started and not yet stopped, false otherwise
+     */
+    public boolean isRecording() {
+        return recorder != null;
+    }
+
+    /**
+     * Gets every recording started in this world, in the order they were
+     * started. Each FrameRecorder gives the path it wrote to, the number of
+     * frames it dropped, and any error that stopped it.
+     *
+     * @return an unmodifiable list of the FrameRecorders used by this world
+     */
+    public List<FrameRecorder> getRecordings() {
+        return Collections.unmodifiableList(recordings);
+    }
+
+    /**
+     * Starts recording to a new file named after the current time in
+     * {@link #RECORDING_DIRECTORY}, or stops the current recording. The
+     * recording is an animated GIF, or a sequence of PNG files if shift is
+     * held down.
+     */
+    private void toggleRecording() {
+        if (isRecording()) {
+            stopRecording();
+            return;
+        }
+        String name = "simulation-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        if (Greenfoot.isKeyDown("shift")) {
+            startRecording(Paths.get(RECORDING_DIRECTORY, name), FrameRecorder.Format.PNG_SEQUENCE);
+        } else {
+            startRecording(Paths.get(RECORDING_DIRECTORY, name + ".gif"), FrameRecorder.Format.ANIMATED_GIF);
+        }
+    }
+
+    /**
+     * Checks whether any recording has finished being written, or been
+     * stopped by an error, and shows a message about it. Also counts down the
+     * time the last message is shown for.
+     */
+    private void updateRecordings() {
+        if (recordingLabelActs > 0) {
+            recordingLabelActs--;
+            if (recordingLabelActs == 0) {
+                recordingLabel = null;
+            }
+        }
+        for (int i = unfinishedRecordings.size() - 1; i >= 0; i--) {
+            FrameRecorder finished = unfinishedRecordings.get(i);
+            if (!finished.isFinished()) {
+                continue;
+            }
+            unfinishedRecordings.remove(i);
+            if (finished == recorder) {
+                stopRecording();
+            }
+            // Do not cover up a recording in progress
+            if (recorder != null) {
+                continue;
+            }
+            String name = finished.getPath().getFileName().toString();
+            String message;
+            if (finished.getError() != null) {
+                message = "Recording " + name + " failed";
+            } else if (finished.getDroppedFrames() > 0) {
+                message = "Saved " + name + " (" + finished.getDroppedFrames() + " dropped)";
+            } else {
+                message = "Saved " + name;
+            }
+            recordingLabel = Text.createStringImage(message, RECORDING_LABEL_COLOR);
+            recordingLabelActs = RECORDING_MESSAGE_ACTS;
+        }
+    }
+
+    /**
+     * Renders the current frame of this world onto the given canvas, without
+     * advancing any animation or displaying it.
+     * <p>
+     * This draws the same image that is displayed for this frame, before any
+     * fade, and can render onto a {@link RasterCanvas} to render frames
+     * off-screen where there is no display.
+     *
+     * @param target the Canvas to render this world onto, the same size as this world
+     */
+    public void renderFrame(Canvas target) {
+        WaveLayers waveLayers = getWaveLayers(waves.getCurrentFrame());
+        target.drawImage(waveLayers.underlay, 0, 0, 255);
+        renderPixelActors(target);
+        target.drawImage(waveLayers.overlay, 0, 0, 255);
+    }
+
+    /**
+     * Gets the images to draw under and over all actors for a frame of the
+     * waves animation, compositing them the first time the frame is shown.
+     * <p>
+     * Drawing the translucent waves and then the foreground over the actors
+     * gives the same result as drawing the single image with both of them, so
+     * each frame only needs two images to be drawn around the actors.
+     *
+     * @param frame the current frame of the waves animation
+     * @return the WaveLayers for the given frame
+     */
+    private WaveLayers getWaveLayers(GreenfootImage frame) {
+        WaveLayers waveLayers = waveLayersByFrame.get(frame);
+        if (waveLayers != null) {
+            return waveLayers;
+        }
+        waveLayers = new WaveLayers();
+        waveLayers.underlay = new GreenfootImage(background);
+        waves.render(new ImageCanvas(waveLayers.underlay));
+        waveLayers.overlay = new GreenfootImage(getWidth(), getHeight());
+        waves.setTransparency(WAVE_OVERLAY_TRANSPARENCY);
+        waves.render(new ImageCanvas(waveLayers.overlay));
+        waves.setTransparency(255);
+        waveLayers.overlay.drawImage(foreground, 0, 0);
+        waveLayersByFrame.put(frame, waveLayers);
+        return waveLayers;
     }
 
     /**
@@ -164,14 +428,25 @@ public class SimulationWorld extends PixelWorld {
      */
     @Override
     public void addObject(Actor object, int x, int y) {
+        // Adding an object already in this world does nothing, so it must not be recorded again
+        if (object.getWorld() == this) {
+            return;
+        }
         super.addObject(object, x, y);
 
+        if (object instanceof Hook) {
+            hooksIndexed = false;
+        }
         if (object instanceof Fish) {
             Fish fish = (Fish) object;
             // Store this fish by its features for retrieval by other fish
             for (FishFeature feature : fish.getFeatureSet()) {
                 fishesByFeature.get(feature).add(fish);
             }
+            maxCatchReach = Math.max(maxCatchReach, fish.getSettings().getCatchReach());
+            if (!fish.isHooked()) {
+                updateUnhookedFishCount(fish, 1);
+            }
             // Discover this type of fish
             discoveredFishesByTier.get(fish.getSettings().getTier() - 1).add(new FishRecord(fish));
         }
@@ -187,15 +462,140 @@ public class SimulationWorld extends PixelWorld {
      */
     @Override
     public void removeObject(Actor object) {
+        // Objects that are not in this world (such as fish that were already removed) are left alone
+        boolean inWorld = object.getWorld() == this;
         super.removeObject(object);
 
-        if (object instanceof Fish) {
+        if (inWorld && object instanceof Hook) {
+            hooksIndexed = false;
+        }
+        if (inWorld && object instanceof Fish) {
             // Remove this fish from all of this world's lists
             Fish fish = (Fish) object;
             for (FishFeature feature : fish.getFeatureSet()) {
                 fishesByFeature.get(feature).remove(fish);
             }
+            if (!fish.isHooked()) {
+                updateUnhookedFishCount(fish, -1);
+            }
+        }
+    }
+
+    /**
+     * Records that a fish in this world has bitten a hook, so that it is no
+     * longer counted as swimming for extinction protection.
+     * <p>
+     * Fish call this method themselves when they bite a hook.
+     *
+     * @param fish the fish that has bitten a hook
+     */
+    public void fishHooked(Fish fish) {
+        updateUnhookedFishCount(fish, -1);
+        // The hook it bit is now occupied
+        hooksIndexed = false;
+    }
+
+    /**
+     * Gets the number of fish in this world of the given class that have not
+     * bitten a hook, including fish of any of its subclasses.
+     * <p>
+     * This method takes constant time, using counts that are kept up to date
+     * as fish are added, removed and hooked.
+     *
+     * @param cls the class of fish to count
+     * @return the number of unhooked fish in this world that are instances of the given class
+     */
+    public int countUnhookedFish(Class<? extends Fish> cls) {
+        Integer count = unhookedFishCounts.get(cls);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Kills the fish and eggs within every kill volume registered during this
+     * act, in a single pass once every PixelActor has acted.
+     */
+    private void resolveKillVolumes() {
+        for (KillVolume volume : killVolumes) {
+            // Predators that have been removed since registering their volume no longer kill
+            if (volume.getPredator().getWorld() != this) {
+                continue;
+            }
+            addObjectsInRange(volume.getRadius(), volume.getX(), volume.getY(), Fish.class, killVolumeVictims);
+            addObjectsInRange(volume.getRadius(), volume.getX(), volume.getY(), Egg.class, killVolumeVictims);
+            for (Actor victim : killVolumeVictims) {
+                // Victims may have already been killed by an earlier volume
+                if (victim.getWorld() == this && volume.kills(victim)) {
+                    removeObject(victim);
+                }
+            }
+            killVolumeVictims.clear();
+        }
+        killVolumes.clear();
+    }
+
+    /**
+     * Recomputes the sock position of every fish in this world with the
+     * {@link FishFeature#ANGLER_SOCK} feature, and stores them in this world's
+     * sock index.
+     */
+    private void indexSocks() {
+        sockIndex.clear();
+        for (Fish fish : fishesByFeature.get(FishFeature.ANGLER_SOCK)) {
+            DoublePair sockPos = fish.getSockPosition();
+            sockIndex.add(sockPos.x, sockPos.y, fish);
+        }
+    }
+
+    /**
+     * Stores the current position of every hook in this world that is not
+     * occupied by a fish in this world's hook index, if it is not already up
+     * to date.
+     * <p>
+     * The index is built the first time hooks are looked up in each act, and
+     * again whenever a hook is added, removed or bitten during the act, so
+     * hooks cast during an act can be found straight away.
+     */
+    private void indexHooks() {
+        if (hooksIndexed) {
+            return;
+        }
+        hookIndex.clear();
+        for (Hook hook : getObjectsView(Hook.class)) {
+            if (!hook.isOccupied()) {
+                hookIndex.add(hook.getDoubleX(), hook.getDoubleY(), hook);
+            }
+        }
+        hooksIndexed = true;
+    }
+
+    /**
+     * Adds the given amount to the unhooked counts of the given fish's class
+     * and all of its superclasses up to Fish.
+     *
+     * @param fish the fish being counted
+     * @param amount the amount to change the counts by
+     */
+    private void updateUnhookedFishCount(Fish fish, int amount) {
+        for (Class<?> cls = fish.getClass(); Fish.class.isAssignableFrom(cls); cls = cls.getSuperclass()) {
+            unhookedFishCounts.merge(cls, amount, Integer::sum);
+        }
+    }
+
+    /**
+     * Gets the size of the cells of the spatial grid used to store objects of
+     * the given class, matching the cell size of each type of fish to the
+     * radius fish school within.
+     *
+     * @param cls the class of objects to be stored in the spatial grid
+     * @return the width and height of each cell of the grid, in canvas pixels
+     * @see PixelWorld#getSpatialCellSize
+     */
+    @Override
+    protected int getSpatialCellSize(Class<? extends Actor> cls) {
+        if (Fish.class.isAssignableFrom(cls)) {
+            return Fish.SCHOOLING_RADIUS;
         }
+        return super.getSpatialCellSize(cls);
     }
 
     /**
@@ -220,6 +620,89 @@ public class SimulationWorld extends PixelWorld {
         return new ArrayList<Fish>(fishesByFeature.get(feature));
     }
 
+    /**
+     * Adds all fish in this world with the {@link FishFeature#ANGLER_SOCK}
+     * feature whose sock lies within a specified radius around a point to the
+     * given list.
+     * <p>
+     * Sock positions are computed once at the start of each act, so fish that
+     * have moved or been removed since then may still be found at their
+     * previous sock position.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param radius the radius of the circle, in canvas pixels
+     * @param result the list to add all fish with a sock within range to
+     * @see Fish#getSockPosition
+     */
+    public void addSocksInRange(double x, double y, double radius, List<? super Fish> result) {
+        sockIndex.addItemsInRange(x, y, radius, result);
+    }
+
+    /**
+     * Adds all hooks in this world that are not occupied by a fish within a
+     * specified radius around a point to the given list.
+     * <p>
+     * Hooks are found by their position when the hook index was last built,
+     * which is at most one act old, see {@link #getNearestUnoccupiedHook}.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param radius the radius of the circle, in canvas pixels
+     * @param result the list to add all unoccupied hooks within range to
+     */
+    public void addUnoccupiedHooksInRange(double x, double y, double radius, List<? super Hook> result) {
+        indexHooks();
+        hookIndex.addItemsInRange(x, y, radius, result);
+    }
+
+    /**
+     * Finds the hook in this world closest to the given point that is not
+     * occupied by a fish.
+     * <p>
+     * Hooks are compared by their position when the hook index was last
+     * built. The index is built the first time hooks are looked up in each
+     * act, and again whenever a hook is added, removed or bitten, so hooks
+     * cast during an act are found straight away. Each lookup only compares
+     * the few hooks that could be closest to somewhere near the given point,
+     * see {@link PointGrid#getNearestItem}.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return the closest unoccupied hook, or null if there are none
+     */
+    public Hook getNearestUnoccupiedHook(double x, double y) {
+        indexHooks();
+        return hookIndex.getNearestItem(x, y);
+    }
+
+    /**
+     * Registers a predator's kill volume to be resolved at the end of this
+     * act, along with all other kill volumes registered this act.
+     * <p>
+     * Predators should register their volume every act they are eating.
+     *
+     * @param volume the KillVolume to resolve
+     */
+    public void addKillVolume(KillVolume volume) {
+        killVolumes.add(volume);
+    }
+
+    /**
+     * Gets the greatest distance between the position of a swimming fish in
+     * this world and its catch point, over all types of fish that have been
+     * added to this world.
+     * <p>
+     * Any fish whose catch point is within some distance of a point must then
+     * be positioned within this much further of that point.
+     *
+     * @return the greatest catch reach of any fish type in this world, in canvas pixels
+     * @see FishSettings#getCatchReach
+     */
+    public double getMaxCatchReach() {
+        return maxCatchReach;
+    }
+
     /**
      * Gets the fisher actor on the given side.
      *
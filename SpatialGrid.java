@@ -0,0 +1,154 @@
+import java.util.List;
+import java.util.ArrayList;
+
+/**
+ * A uniform grid of square cells covering the area of a world, storing
+ * PixelActors by the cell their position lies within.
+ * <p>
+ * This allows lookups of actors near a point to only consider actors found in
+ * the cells around that point, rather than every actor in the world.
+ * <p>
+ * Actors positioned outside the area covered by the grid are stored in the
+ * nearest cell along its edge. Since queries are clamped in the same way, such
+ * actors are still found by any query that reaches them.
+ * <p>
+ * A PixelActor keeps track of the cell it is currently stored in through its
+ * {@link ActorSlot}, and is expected to notify its grid with {@link #update}
+ * whenever its position changes.
+ *
+ * @version April 2024
+ */
+public class SpatialGrid {
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    // All cells in row-major order, each containing the actors positioned within it
+    private final List<List<PixelActor>> cells;
+
+    /**
+     * Creates a new SpatialGrid covering an area of the given dimensions.
+     *
+     * @param width the width of the area to cover, in canvas pixels
+     * @param height the height of the area to cover, in canvas pixels
+     * @param cellSize the width and height of each cell, in canvas pixels
+     */
+    public SpatialGrid(int width, int height, int cellSize) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("SpatialGrid cell size must be positive (got " + cellSize + ")");
+        }
+        this.cellSize = cellSize;
+        columns = Math.max((width + cellSize - 1) / cellSize, 1);
+        rows = Math.max((height + cellSize - 1) / cellSize, 1);
+        cells = new ArrayList<List<PixelActor>>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cells.add(new ArrayList<PixelActor>());
+        }
+    }
+
+    /**
+     * Adds a PixelActor to the cell containing its current position.
+     *
+     * @param actor the actor to add
+     */
+    public void add(PixelActor actor) {
+        int cell = getCellIndex(actor.getDoubleX(), actor.getDoubleY());
+        cells.get(cell).add(actor);
+        actor.getActorSlot().spatialCell = cell;
+    }
+
+    /**
+     * Removes a PixelActor from the cell it is currently stored in.
+     *
+     * @param actor the actor to remove
+     */
+    public void remove(PixelActor actor) {
+        ActorSlot slot = actor.getActorSlot();
+        if (slot.spatialCell < 0) {
+            return;
+        }
+        cells.get(slot.spatialCell).remove(actor);
+        slot.spatialCell = -1;
+    }
+
+    /**
+     * Moves a PixelActor into the cell containing its current position, if it
+     * has moved out of the cell it is currently stored in.
+     *
+     * @param actor the actor whose position has changed
+     */
+    public void update(PixelActor actor) {
+        ActorSlot slot = actor.getActorSlot();
+        if (slot.spatialCell < 0) {
+            return;
+        }
+        int newCell = getCellIndex(actor.getDoubleX(), actor.getDoubleY());
+        if (newCell == slot.spatialCell) {
+            return;
+        }
+        cells.get(slot.spatialCell).remove(actor);
+        cells.get(newCell).add(actor);
+        slot.spatialCell = newCell;
+    }
+
+    /**
+     * Adds all actors in this grid within a specified radius around a point to
+     * the given list. An actor is within range if the distance between its
+     * center of rotation and the given point is less than or equal to the given
+     * radius.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param radius the radius of the circle, in canvas pixels
+     * @param result the list to add all actors within range to
+     */
+    public void addActorsInRange(double x, double y, double radius, List<? super PixelActor> result) {
+        int minColumn = getColumn(x - radius);
+        int maxColumn = getColumn(x + radius);
+        int minRow = getRow(y - radius);
+        int maxRow = getRow(y + radius);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (PixelActor actor : cells.get(row * columns + column)) {
+                    if (actor.getDistanceTo(x, y) <= radius) {
+                        result.add(actor);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the width and height of each cell of this grid.
+     *
+     * @return the size of each cell, in canvas pixels
+     */
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Gets the index of the cell containing the given point, clamped to the
+     * edges of this grid.
+     */
+    private int getCellIndex(double x, double y) {
+        return getRow(y) * columns + getColumn(x);
+    }
+
+    /**
+     * Gets the column of cells containing the given x coordinate, clamped to
+     * the edges of this grid.
+     */
+    private int getColumn(double x) {
+        int column = (int) Math.floor(x / cellSize);
+        return Math.max(Math.min(column, columns - 1), 0);
+    }
+
+    /**
+     * Gets the row of cells containing the given y coordinate, clamped to the
+     * edges of this grid.
+     */
+    private int getRow(double y) {
+        int row = (int) Math.floor(y / cellSize);
+        return Math.max(Math.min(row, rows - 1), 0);
+    }
+}
@@ -92,7 +92,7 @@ public class SummaryWorld extends PixelWorld
                 FishRecord.setSpeedMultiplier(speedMultiplier);
             }
             if(curFish!=null){
-                int curFishDistance = curFish.getX() - curFish.getOriginalImage().getWidth()/2;
+                int curFishDistance = curFish.getX() - curFish.getOriginalWidth()/2;
                 if(FISH_SPAWN_INTERVAL <= curFishDistance){
                     addNextFishToWorld();
                     counter = 0;
@@ -152,6 +152,8 @@ public class SummaryWorld extends PixelWorld
         //render the background and title
         canvasBackground.drawImage(BACKGROUND, 0, 0);
         canvasBackground.drawImage(TITLE_TEXT, 52, 6);
+        // The background was redrawn in place, so the whole canvas must be redrawn
+        invalidateCanvas();
 
         //draw player on the screen
         canvasBackground.drawImage(PLAYER_IMAGES[playerIndexNum], 0, 0);
@@ -204,6 +206,8 @@ public class SummaryWorld extends PixelWorld
         //render the background and title
         canvasBackground.drawImage(BACKGROUND, 0, 0);
         canvasBackground.drawImage(TITLE_TEXT, 52, 6);
+        // The background was redrawn in place, so the whole canvas must be redrawn
+        invalidateCanvas();
 
         addObject(speedMultiplierSlider, 178, 46);
 
@@ -236,7 +240,7 @@ public class SummaryWorld extends PixelWorld
             fishesIndex = 0;
         }
         curFish = fishesToDisplay.get(fishesIndex);
-        addObject(curFish, -curFish.getOriginalImage().getWidth()/2, getHeight()/2);
+        addObject(curFish, -curFish.getOriginalWidth()/2, getHeight()/2);
         fishesIndex++;
     }
 
@@ -244,11 +248,8 @@ public class SummaryWorld extends PixelWorld
      * Renders the background, all of the text, and the fish onto the canvas
      */
     private void render(){
-        GreenfootImage canvas = getCanvas();
-        canvas.drawImage(canvasBackground, 0, 0);
-        renderPixelActors();
-        canvas.drawImage(FOREGROUND, 0, 0);
-        updateImage();
+        // Only redraw the parts of the screen that have changed
+        renderIncrementally(canvasBackground, FOREGROUND);
     }
 
     /**
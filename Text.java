@@ -1,4 +1,7 @@
 import greenfoot.*;
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.Objects;
 
 /**
  * An object whose image consists of horizontal lines of characters created from
@@ -10,6 +13,10 @@ import greenfoot.*;
  * handled, shifting all following characters to be drawn on a new line below,
  * starting from the left. If any other character is encountered when rendering
  * text, an {@link IndexOutOfBoundsException} will be thrown.
+ * <p>
+ * The character images are packed side by side into one atlas raster, from
+ * which strings are rendered by copying each character's region. The images of
+ * recently displayed strings are shared by all text objects.
  *
  * @author Martin Baldwin
  * @author Andrew Wang
@@ -44,9 +51,18 @@ public class Text extends PixelActor {
      */
     public static final int BACKGROUND_PADDING_Y = 2;
 
+    /**
+     * The greatest number of rendered strings whose images are kept to be
+     * shared by text objects displaying the same string.
+     */
+    public static final int MAX_CACHED_STRING_IMAGES = 128;
+
     // Map characters to their image representations
     // A character's image is found at the index of the ASCII value minus 0x20 so that it starts at space
     private static final GreenfootImage[] charmap;
+    // Every character image packed side by side into one raster, and the x coordinate of each character within it
+    private static final RasterCanvas atlas;
+    private static final int[] atlasX;
     static {
         charmap = new GreenfootImage[0x7F - 0x20];
         int i = 0;
@@ -71,6 +87,53 @@ public class Text extends PixelActor {
         for (String entity : new String[] {"lcub", "verbar", "rcub", "tilde"}) {
             charmap[i++] = new GreenfootImage("characters/" + entity + ".png");
         }
+
+        atlasX = new int[charmap.length];
+        int atlasWidth = 0;
+        for (i = 0; i < charmap.length; i++) {
+            atlasX[i] = atlasWidth;
+            atlasWidth += charmap[i].getWidth();
+        }
+        atlas = new RasterCanvas(atlasWidth, CHARACTER_HEIGHT);
+        for (i = 0; i < charmap.length; i++) {
+            atlas.drawImage(charmap[i], atlasX[i], 0, 255);
+        }
+    }
+
+    // The images of recently rendered strings shared by all text objects, from least to most recently used
+    private static final Map<StringImageKey, GreenfootImage> stringImages = new LinkedHashMap<StringImageKey, GreenfootImage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<StringImageKey, GreenfootImage> eldest) {
+            return size() > MAX_CACHED_STRING_IMAGES;
+        }
+    };
+
+    /**
+     * The content and background color of a rendered string, identifying its
+     * image among the shared string images.
+     */
+    private static class StringImageKey {
+        private final String content;
+        private final Color bgColor;
+
+        private StringImageKey(String content, Color bgColor) {
+            this.content = content;
+            this.bgColor = bgColor;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof StringImageKey)) {
+                return false;
+            }
+            StringImageKey key = (StringImageKey) other;
+            return Objects.equals(content, key.content) && Objects.equals(bgColor, key.bgColor);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(content, bgColor);
+        }
     }
 
     /**
@@ -106,6 +169,8 @@ public class Text extends PixelActor {
     private final AnchorX anchorX;
     private final AnchorY anchorY;
     private final Color bgColor;
+    // The string currently displayed by this text object
+    private String content;
 
     /**
      * Creates a displayable text object from the given string with the
@@ -117,10 +182,11 @@ public class Text extends PixelActor {
      * @param bgColor the background color of the text, or {@code null} for no background
      */
     public Text(String content, AnchorX anchorX, AnchorY anchorY, Color bgColor) {
-        super(createStringImage(content, bgColor), Layer.UI);
+        super(getSharedStringImage(content, bgColor), Layer.UI);
         this.anchorX = anchorX;
         this.anchorY = anchorY;
         this.bgColor = bgColor;
+        this.content = content;
         updatePosition();
     }
 
@@ -182,11 +248,17 @@ public class Text extends PixelActor {
 
     /**
      * Updates this text object's image to display the given string.
+     * <p>
+     * Nothing is done if the string is the same as the one already displayed.
      *
      * @param content the string to render to this text object
      */
     public void setContent(String content) {
-        setImage(createStringImage(content, bgColor));
+        if (content != null && content.equals(this.content)) {
+            return;
+        }
+        setImage(getSharedStringImage(content, bgColor));
+        this.content = content;
         updatePosition();
     }
 
@@ -210,23 +282,47 @@ public class Text extends PixelActor {
         int y = 0;
         switch (anchorX) {
         case RIGHT:
-            x = getOriginalImage().getWidth() - 1;
+            x = getOriginalWidth() - 1;
             break;
         case CENTER:
-            x = getOriginalImage().getWidth() / 2;
+            x = getOriginalWidth() / 2;
             break;
         }
         switch (anchorY) {
         case BOTTOM:
-            y = getOriginalImage().getHeight() - 1;
+            y = getOriginalHeight() - 1;
             break;
         case CENTER:
-            y = getOriginalImage().getHeight() / 2;
+            y = getOriginalHeight() / 2;
             break;
         }
         setCenterOfRotation(x, y);
     }
 
+    /**
+     * Gets an image with a readable representation of the given string,
+     * within a container of the given color, shared with every other text
+     * object displaying the same string.
+     * <p>
+     * The returned image must not be modified.
+     *
+     * @param content the string to render to an image
+     * @param bgColor the color to fill the background of the text with, or {@code null} for no background
+     * @return a shared {@link GreenfootImage} containing a representation of the given content, or {@code null} if there is nothing to draw
+     * @see #createStringImage(String, Color)
+     */
+    private static GreenfootImage getSharedStringImage(String content, Color bgColor) {
+        StringImageKey key = new StringImageKey(content, bgColor);
+        GreenfootImage image = stringImages.get(key);
+        if (image == null) {
+            image = createStringImage(content, bgColor);
+            if (image != null) {
+                stringImages.put(key, image);
+            }
+        }
+        return image;
+    }
+
     /**
      * Creates an image with a readable representation of the given string.
      * <p>
@@ -239,77 +335,75 @@ public class Text extends PixelActor {
      * @return a new {@link GreenfootImage} containing a representation of the given content
      */
     public static GreenfootImage createStringImage(String content) {
+        return createStringImage(content, null);
+    }
+
+    /**
+     * Creates an image with a readable representation of the given string,
+     * within a container of the given color.
+     * <p>
+     * The text is padded so that it does not reach the edge of the returned
+     * image, unless {@code bgColor} is {@code null}, in which case this method
+     * is equivalent to {@link #createStringImage(String)}.
+     *
+     * @param content the string to render to an image
+     * @param bgColor the color to fill the background of the text with
+     * @return a new {@link GreenfootImage} containing a representation of the given content
+     * @see #createStringImage(String)
+     */
+    public static GreenfootImage createStringImage(String content, Color bgColor) {
         if (content == null) {
             throw new IllegalArgumentException("String content must not be null");
         } else if (content.length() < 1) {
             return null;
         }
-        // Find the dimensions and character images required for this text
+        // Find the dimensions and character indices required for this text
         int maxWidth = -CHARACTER_SPACING;
         int width = -CHARACTER_SPACING;
         int height = CHARACTER_HEIGHT;
-        GreenfootImage[] charImages = new GreenfootImage[content.length()];
+        int[] charIndices = new int[content.length()];
         for (int i = 0; i < content.length(); i++) {
             // Move on to the next line if a newline character is found
             if (content.charAt(i) == '\n') {
                 width = -CHARACTER_SPACING;
                 height += CHARACTER_HEIGHT + LINE_SPACING;
-                charImages[i] = null;
+                charIndices[i] = -1;
                 continue;
             }
-            GreenfootImage charImage = charmap[content.charAt(i) - ' '];
+            int charIndex = content.charAt(i) - ' ';
+            GreenfootImage charImage = charmap[charIndex];
             if (charImage.getHeight() != CHARACTER_HEIGHT) {
                 throw new UnsupportedOperationException("Image for character '" + content.charAt(i) + "' has a height that does not match Text.CHARACTER_HEIGHT");
             }
             width += charImage.getWidth() + CHARACTER_SPACING;
             maxWidth = Math.max(maxWidth, width);
-            charImages[i] = charImage;
+            charIndices[i] = charIndex;
         }
         if (maxWidth <= 0) {
             // Text consists of only newlines
             return null;
         }
-        // Draw the characters to an image
-        GreenfootImage result = new GreenfootImage(maxWidth, height);
-        for (int i = 0, x = 0, y = 0; i < charImages.length; i++) {
+
+        // Add padding so the text doesn't reach the edge of the colored box
+        int paddingX = bgColor == null ? 0 : BACKGROUND_PADDING_X;
+        int paddingY = bgColor == null ? 0 : BACKGROUND_PADDING_Y;
+        RasterCanvas result = new RasterCanvas(maxWidth + paddingX * 2, height + paddingY * 2);
+        if (bgColor != null) {
+            result.fillRect(0, 0, result.getWidth(), result.getHeight(), bgColor);
+        }
+        // Copy each character from the atlas
+        for (int i = 0, x = paddingX, y = paddingY; i < charIndices.length; i++) {
             // A new line is reached
-            if (charImages[i] == null) {
-                x = 0;
+            if (charIndices[i] == -1) {
+                x = paddingX;
                 y += CHARACTER_HEIGHT + LINE_SPACING;
                 continue;
             }
-            result.drawImage(charImages[i], x, y);
-            x += charImages[i].getWidth() + CHARACTER_SPACING;
-        }
-        return result;
-    }
-
-    /**
-     * Creates an image with a readable representation of the given string,
-     * within a container of the given color.
-     * <p>
-     * The text is padded so that it does not reach the edge of the returned
-     * image, unless {@code bgColor} is {@code null}, in which case this method
-     * is equivalent to {@link #createStringImage(String)}.
-     *
-     * @param content the string to render to an image
-     * @param bgColor the color to fill the background of the text with
-     * @return a new {@link GreenfootImage} containing a representation of the given content
-     * @see #createStringImage(String)
-     */
-    public static GreenfootImage createStringImage(String content, Color bgColor) {
-        GreenfootImage textImage = createStringImage(content);
-        if (textImage == null || bgColor == null) {
-            return textImage;
+            int charWidth = charmap[charIndices[i]].getWidth();
+            result.drawCanvasRegion(atlas, atlasX[charIndices[i]], 0, charWidth, CHARACTER_HEIGHT, x, y);
+            x += charWidth + CHARACTER_SPACING;
         }
-        // Add padding so the text doesn't reach the edge of the colored box
-        int containerWidth = textImage.getWidth() + BACKGROUND_PADDING_X * 2;
-        int containerHeight = textImage.getHeight() + BACKGROUND_PADDING_Y * 2;
-        GreenfootImage container = new GreenfootImage(containerWidth, containerHeight);
-        container.setColor(bgColor);
-        container.fill();
-        container.drawImage(textImage, BACKGROUND_PADDING_X, BACKGROUND_PADDING_Y);
-        return container;
+        return result.toImage();
     }
 
     /**
@@ -53,7 +53,7 @@ public class TitleWorld extends PixelWorld
 
     private void render() {
         gif.updateImage();
-        gif.render(getCanvas());
+        gif.render(getImageCanvas());
         updateImage();
     }
 }
@@ -1,4 +1,8 @@
 import greenfoot.*;
+import java.util.Map;
+import java.util.HashMap;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
 
 /**
  * A bar that represents the level and experience of something.
@@ -18,20 +22,20 @@ public class UIBar extends PixelActor
     private int width;
     private int height;
 
-    private static GreenfootImage wrap = new GreenfootImage ("ui/bar_background.png");
+    private static final GreenfootImage wrap = new GreenfootImage ("ui/bar_background.png");
+    // The bar background scaled to each size of bar, by width and height, see getScaledWrap()
+    private static final Map<Long, GreenfootImage> scaledWraps = new HashMap<Long, GreenfootImage>();
     private GreenfootImage fill;
+    // The fill image cropped to the inside of this bar, and how much of it is currently drawn
+    private GreenfootImage fillSection;
+    private int filledWidth;
+    // The image of this bar, which only this bar draws on
+    private GreenfootImage barImage;
 
     //if you are chaging the pictures of the wrap, update these numbers. they are the pixel widths of your image
     //borderWidth is how many pixels of offset to push the bar filling
     private static int borderWidth = 1;
 
-    //given all the parameters generate the new sprite image
-    //this is based on your update() method but with all the varialbes passed in via parameters as this is a static method
-    //i put in default values becuase I don't think java lets you use non-static variables in static methods
-
-    //what you SHOULD do on your own is define constant static "inital values" up top, and assign them to your instance variables in your constructor
-    //for now I just hardcoded the initial values inside the prameters of this method
-
     /**
      * Create a UIBar with the given width, height, maximum experience, and fill image.
      *
@@ -41,46 +45,21 @@ public class UIBar extends PixelActor
      * @param fillImagePath The path to the fill image of the UIBar
      */
     public UIBar(int barWidth, int barHeight, int maxExp, String fillImagePath){
-        //call teh pixel actors constructor first (via the super() call )
-        //pixel actors constructor requires a greenfootimage for it's constructor, so we use our helper static method to generate  it, and then pass it ot the UI
-        super(generateUI(barWidth ,barHeight , 0, new GreenfootImage(fillImagePath)), Layer.UI);
+        //call teh pixel actors constructor first (via the super() call ), the image is set once the bar's size is known
+        super(Layer.UI);
 
         this.width = barWidth;
         this.height = barHeight;
         this.maxExp = maxExp;
         this.fill = new GreenfootImage(fillImagePath);
+        // The size of the bar never changes, so crop the fill once and only redraw how much of it shows
+        fillSection = Util.croppedImage(fill, width - borderWidth * 2, height - borderWidth * 2);
+        filledWidth = 0;
+        barImage = new GreenfootImage(getScaledWrap(width, height));
+        setImage(barImage);
         setCenterOfRotation(0, 0);
     }
 
-    /**
-     * Generate a UIbar's image with the given width, height, percentage filled, and fill image.
-     *
-     * @param width The width of the UIBar
-     * @param height The height of the UIBar
-     * @param percentageFilled The percentage of the UIBar that is filled
-     * @param fill The fill image of the UIBar
-     * @return The generated UIBar image
-     */
-    public static GreenfootImage generateUI(int width, int height, double percentageFilled, GreenfootImage fill){
-        wrap.scale(width, height);
-
-        GreenfootImage barBackground = new GreenfootImage(width, height);
-        barBackground.drawImage(wrap, 0, 0);
-
-        //calculate how wide the "actual bar" can be (if fully filled)
-        int filledSectionWidth = width - borderWidth * 2;
-        //multiply by how much to fill
-        int barWidth  = (int) (filledSectionWidth * percentageFilled);
-
-        if (barWidth > 0 ){
-            GreenfootImage filledSection = Util.croppedImage(fill, barWidth, height - borderWidth *2 );
-            barBackground.drawImage(filledSection, borderWidth , borderWidth);
-        }
-
-        //instead of drawing it directly, RETURN the image
-        return barBackground;
-    }
-
     /**
      * Gain experience for the UIBar.
      *
@@ -99,9 +78,56 @@ public class UIBar extends PixelActor
         }
 
         double barPercentage = (double) exp / (double)maxExp;
-        //instead of calling update use our static helper method to "generate the updatedUI" and pass it to PixelActors set
-        setImage(generateUI(this.width, this.height, barPercentage, fill));
-        setCenterOfRotation(0, 0);
+        updateFill(barPercentage);
+    }
+
+    /**
+     * Redraw the part of this UIBar's image that changes when its fill
+     * changes to the given percentage.
+     *
+     * @param percentageFilled The percentage of the UIBar that is filled
+     */
+    private void updateFill(double percentageFilled) {
+        int filledSectionWidth = width - borderWidth * 2;
+        int barWidth = Math.max(Math.min((int) (filledSectionWidth * percentageFilled), filledSectionWidth), 0);
+        if (barWidth == filledWidth) {
+            return;
+        }
+        // Only the span between the old and new ends of the fill changes
+        Graphics2D graphics = barImage.getAwtImage().createGraphics();
+        graphics.setClip(borderWidth + Math.min(barWidth, filledWidth), borderWidth, Math.abs(barWidth - filledWidth), height - borderWidth * 2);
+        // Restore the background under that span, then fill it if the bar grew
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.drawImage(getScaledWrap(width, height).getAwtImage(), 0, 0, null);
+        if (barWidth > filledWidth) {
+            graphics.setComposite(AlphaComposite.SrcOver);
+            graphics.drawImage(fillSection.getAwtImage(), borderWidth, borderWidth, null);
+        }
+        graphics.dispose();
+        filledWidth = barWidth;
+        refreshImage();
+    }
+
+    /**
+     * Get the bar background scaled to the given size, scaling a copy of it
+     * the first time any bar of that size needs it.
+     * <p>
+     * The returned image is shared and must not be modified.
+     *
+     * @param width The width of the UIBar
+     * @param height The height of the UIBar
+     * @return The bar background scaled to the given width and height
+     */
+    private static GreenfootImage getScaledWrap(int width, int height) {
+        Long key = (long) width << 32 | height;
+        GreenfootImage scaledWrap = scaledWraps.get(key);
+        if (scaledWrap == null) {
+            // Scale a copy, since the original background is shared by bars of every size
+            scaledWrap = new GreenfootImage(wrap);
+            scaledWrap.scale(width, height);
+            scaledWraps.put(key, scaledWrap);
+        }
+        return scaledWrap;
     }
 
     /**
@@ -106,4 +106,28 @@ public class Util {
         double difference = Math.floorMod((int) (endAngle - currentAngle + 180), 360) - 180;
         return currentAngle + difference * factor;
     }
+
+    /**
+     * Calculate the shortest distance between a point and a line segment.
+     *
+     * @param x The x coordinate of the point
+     * @param y The y coordinate of the point
+     * @param x1 The x coordinate of the start of the segment
+     * @param y1 The y coordinate of the start of the segment
+     * @param x2 The x coordinate of the end of the segment
+     * @param y2 The y coordinate of the end of the segment
+     * @return The distance between the point and the closest point on the segment
+     */
+    public static double distanceToSegment(double x, double y, double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+        // Find how far along the segment the closest point lies, from 0 at its start to 1 at its end
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = ((x - x1) * dx + (y - y1) * dy) / lengthSquared;
+            t = Math.max(0, Math.min(t, 1));
+        }
+        return Math.hypot(x - (x1 + t * dx), y - (y1 + t * dy));
+    }
 }